@@ -0,0 +1,95 @@
+package com.carpool.benchmark;
+
+import com.carpool.entity.Ride;
+import com.carpool.entity.User;
+import com.carpool.repository.RideRepository;
+import com.carpool.repository.UserRepository;
+import com.carpool.service.RatingService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rating Service Benchmark
+ *
+ * One write-behind flush of the ratings a ride's passengers gave its driver:
+ * the ledger batch insert plus the aggregate increment against the embedded
+ * database. Each invocation rates a fresh ride, created (with the submissions)
+ * outside the measurement.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RatingServiceBenchmark {
+
+    @Param({"1", "100"})
+    private int ratingsPerFlush;
+
+    private ConfigurableApplicationContext context;
+
+    private RatingService ratingService;
+
+    private RideRepository rideRepository;
+
+    private User driver;
+
+    private final List<Long> passengerIds = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Flushes are driven by the benchmark, not the scheduler
+        context = BenchmarkContext.start("--app.ratings.flush-interval-ms=3600000");
+        ratingService = context.getBean(RatingService.class);
+        rideRepository = context.getBean(RideRepository.class);
+
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        driver = userRepository.save(
+            new User("Bench", "Driver", "bench.driver@example.com", "9000000001", "not-a-real-hash"));
+
+        for (int i = 0; i < ratingsPerFlush; i++) {
+            passengerIds.add(userRepository.save(
+                new User("Bench", "Passenger", "bench.passenger" + i + "@example.com", String.valueOf(9100000000L + i),
+                    "not-a-real-hash")).getId());
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void submitRatings() {
+        Ride ride = rideRepository.save(new Ride(driver, "Mumbai", "Pune", LocalDate.now().plusDays(1),
+            LocalTime.of(9, 0), 4, 350.0, "Honda City", "MH12AB1234"));
+
+        for (Long passengerId : passengerIds) {
+            ratingService.submitRating(driver.getId(), passengerId, ride.getId(), 4.5);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void flush() {
+        ratingService.flush();
+    }
+}
@@ -0,0 +1,153 @@
+package com.carpool.benchmark;
+
+import com.carpool.entity.Ride;
+import com.carpool.service.RideGeoIndex;
+import com.carpool.service.RideSearchIndex;
+import com.carpool.util.GeoHash;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ride Geo Index Benchmark
+ *
+ * The nearby search over a million active rides spread around twenty Indian
+ * cities over thirty days, answered from the geohash grid index and, for
+ * comparison, by checking the distance of every ride (what a table scan does).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class RideGeoIndexBenchmark {
+
+    private static final double[][] CITIES = {
+        {19.0760, 72.8777}, {18.5204, 73.8567}, {28.6139, 77.2090}, {28.4595, 77.0266},
+        {12.9716, 77.5946}, {12.2958, 76.6394}, {13.0827, 80.2707}, {17.3850, 78.4867},
+        {22.5726, 88.3639}, {23.0225, 72.5714}, {26.9124, 75.7873}, {21.1702, 72.8311},
+        {26.8467, 80.9462}, {21.1458, 79.0882}, {22.7196, 75.8577}, {15.2993, 74.1240},
+        {9.9312, 76.2673}, {30.7333, 76.7794}, {20.2961, 85.8245}, {25.5941, 85.1376}
+    };
+
+    private static final int DAYS = 30;
+
+    // Spread of pickup and drop points around a city centre, in degrees (about 10 km)
+    private static final double SPREAD = 0.09;
+
+    private static final int QUERIES = 1024;
+
+    @Param({"1000000"})
+    private int rides;
+
+    @Param({"5"})
+    private double radiusKm;
+
+    private RideGeoIndex index;
+
+    private double[] pickupLatitudes;
+
+    private double[] pickupLongitudes;
+
+    private double[] dropLatitudes;
+
+    private double[] dropLongitudes;
+
+    private int[] dayOffsets;
+
+    private double[][] queries;
+
+    private LocalDate firstDate;
+
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        index = new RideGeoIndex();
+        firstDate = LocalDate.now().plusDays(1);
+
+        pickupLatitudes = new double[rides];
+        pickupLongitudes = new double[rides];
+        dropLatitudes = new double[rides];
+        dropLongitudes = new double[rides];
+        dayOffsets = new int[rides];
+
+        for (int i = 0; i < rides; i++) {
+            double[] from = CITIES[random.nextInt(CITIES.length)];
+            double[] to = CITIES[random.nextInt(CITIES.length)];
+
+            Ride ride = new Ride();
+            ride.setId((long) i + 1);
+            ride.setStatus(Ride.RideStatus.ACTIVE);
+            ride.setAvailableSeats(1 + random.nextInt(4));
+            ride.setDepartureDate(firstDate.plusDays(random.nextInt(DAYS)));
+            ride.setDepartureTime(LocalTime.of(random.nextInt(24), random.nextInt(60)));
+            ride.setPickupLatitude(from[0] + gaussian(random) * SPREAD);
+            ride.setPickupLongitude(from[1] + gaussian(random) * SPREAD);
+            ride.setDropLatitude(to[0] + gaussian(random) * SPREAD);
+            ride.setDropLongitude(to[1] + gaussian(random) * SPREAD);
+            index.index(ride);
+
+            pickupLatitudes[i] = ride.getPickupLatitude();
+            pickupLongitudes[i] = ride.getPickupLongitude();
+            dropLatitudes[i] = ride.getDropLatitude();
+            dropLongitudes[i] = ride.getDropLongitude();
+            dayOffsets[i] = (int) (ride.getDepartureDate().toEpochDay() - firstDate.toEpochDay());
+        }
+
+        queries = new double[QUERIES][];
+        for (int i = 0; i < QUERIES; i++) {
+            double[] from = CITIES[random.nextInt(CITIES.length)];
+            double[] to = CITIES[random.nextInt(CITIES.length)];
+            queries[i] = new double[] {
+                from[0] + gaussian(random) * SPREAD, from[1] + gaussian(random) * SPREAD,
+                to[0] + gaussian(random) * SPREAD, to[1] + gaussian(random) * SPREAD,
+                random.nextInt(DAYS)
+            };
+        }
+    }
+
+    private static double gaussian(SplittableRandom random) {
+        // Box-Muller; SplittableRandom has no nextGaussian on Java 17
+        return Math.sqrt(-2 * Math.log(1 - random.nextDouble())) * Math.cos(2 * Math.PI * random.nextDouble());
+    }
+
+    @Benchmark
+    public List<RideSearchIndex.Match> gridIndex() {
+        double[] query = queries[next++ & (QUERIES - 1)];
+        return index.search(query[0], query[1], query[2], query[3], radiusKm,
+                            firstDate.plusDays((long) query[4]));
+    }
+
+    @Benchmark
+    public int fullScan() {
+        double[] query = queries[next++ & (QUERIES - 1)];
+        int day = (int) query[4];
+        int matches = 0;
+        for (int i = 0; i < rides; i++) {
+            if (dayOffsets[i] == day
+                    && GeoHash.distanceKm(query[0], query[1], pickupLatitudes[i], pickupLongitudes[i]) <= radiusKm
+                    && GeoHash.distanceKm(query[2], query[3], dropLatitudes[i], dropLongitudes[i]) <= radiusKm) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+}
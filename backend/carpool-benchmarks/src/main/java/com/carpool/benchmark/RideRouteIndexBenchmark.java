@@ -0,0 +1,145 @@
+package com.carpool.benchmark;
+
+import com.carpool.entity.Ride;
+import com.carpool.service.RideRouteIndex;
+import com.carpool.service.RideSearchIndex;
+import com.carpool.util.GeoHash;
+import com.carpool.util.Polyline;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ride Route Index Benchmark
+ *
+ * Corridor searches against routed rides leaving twenty Indian cities over a
+ * week, each route 20 to 300 km long with a point every 5 km. Queries pick a
+ * pickup and a later drop point about a kilometre off a random ride's route, so
+ * every search has matches. Sample time mode reports the p99 next to the mean.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class RideRouteIndexBenchmark {
+
+    private static final double[][] CITIES = {
+        {19.0760, 72.8777}, {18.5204, 73.8567}, {28.6139, 77.2090}, {28.4595, 77.0266},
+        {12.9716, 77.5946}, {12.2958, 76.6394}, {13.0827, 80.2707}, {17.3850, 78.4867},
+        {22.5726, 88.3639}, {23.0225, 72.5714}, {26.9124, 75.7873}, {21.1702, 72.8311},
+        {26.8467, 80.9462}, {21.1458, 79.0882}, {22.7196, 75.8577}, {15.2993, 74.1240},
+        {9.9312, 76.2673}, {30.7333, 76.7794}, {20.2961, 85.8245}, {25.5941, 85.1376}
+    };
+
+    private static final int DAYS = 7;
+
+    private static final double STEP_KM = 5;
+
+    private static final int QUERIES = 1024;
+
+    @Param({"300000"})
+    private int rides;
+
+    @Param({"2"})
+    private double distanceKm;
+
+    private RideRouteIndex index;
+
+    private Ride[] indexed;
+
+    private double[][] queries;
+
+    private LocalDate firstDate;
+
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        index = new RideRouteIndex();
+        indexed = new Ride[rides];
+        firstDate = LocalDate.now().plusDays(1);
+
+        int[][] routes = new int[rides][];
+        for (int i = 0; i < rides; i++) {
+            double[] city = CITIES[random.nextInt(CITIES.length)];
+            routes[i] = route(random, city[0] + (random.nextDouble() - 0.5) * 0.2,
+                              city[1] + (random.nextDouble() - 0.5) * 0.2, 20 + random.nextDouble() * 280);
+
+            Ride ride = new Ride();
+            ride.setId((long) i + 1);
+            ride.setStatus(Ride.RideStatus.ACTIVE);
+            ride.setAvailableSeats(1 + random.nextInt(4));
+            ride.setDepartureDate(firstDate.plusDays(random.nextInt(DAYS)));
+            ride.setDepartureTime(LocalTime.of(random.nextInt(24), random.nextInt(60)));
+            ride.setRoutePolyline(Polyline.encode(routes[i]));
+            index.index(ride);
+            indexed[i] = ride;
+        }
+
+        queries = new double[QUERIES][];
+        for (int i = 0; i < QUERIES; i++) {
+            int ride = random.nextInt(rides);
+            int[] route = routes[ride];
+            int points = route.length / 2;
+            int pickup = random.nextInt(points - 1);
+            int drop = pickup + 1 + random.nextInt(points - 1 - pickup);
+            queries[i] = new double[] {
+                route[2 * pickup] / Polyline.SCALE + offset(random), route[2 * pickup + 1] / Polyline.SCALE + offset(random),
+                route[2 * drop] / Polyline.SCALE + offset(random), route[2 * drop + 1] / Polyline.SCALE + offset(random),
+                indexed[ride].getDepartureDate().toEpochDay() - firstDate.toEpochDay()
+            };
+        }
+    }
+
+    /**
+     * A wandering route of the given length from a start point, one point every STEP_KM
+     */
+    private static int[] route(SplittableRandom random, double latitude, double longitude, double lengthKm) {
+        int points = 1 + (int) Math.ceil(lengthKm / STEP_KM);
+        int[] route = new int[points * 2];
+        double heading = random.nextDouble() * 2 * Math.PI;
+        for (int p = 0; p < points; p++) {
+            route[2 * p] = (int) Math.round(latitude * Polyline.SCALE);
+            route[2 * p + 1] = (int) Math.round(longitude * Polyline.SCALE);
+            heading += (random.nextDouble() - 0.5) * 0.6;
+            latitude += Math.cos(heading) * STEP_KM / GeoHash.KM_PER_DEGREE;
+            longitude += Math.sin(heading) * STEP_KM / (GeoHash.KM_PER_DEGREE * Math.cos(Math.toRadians(latitude)));
+        }
+        return route;
+    }
+
+    // About a kilometre either way, in degrees
+    private static double offset(SplittableRandom random) {
+        return (random.nextDouble() - 0.5) * 0.018;
+    }
+
+    @Benchmark
+    public List<RideSearchIndex.Match> corridorSearch() {
+        double[] query = queries[next++ & (QUERIES - 1)];
+        return index.search(query[0], query[1], query[2], query[3], distanceKm,
+                            firstDate.plusDays((long) query[4]));
+    }
+
+    @Benchmark
+    public void reindexRide() {
+        index.index(indexed[(next++ * 7919) % rides]);
+    }
+}
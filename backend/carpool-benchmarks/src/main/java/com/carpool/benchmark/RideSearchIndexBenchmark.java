@@ -0,0 +1,138 @@
+package com.carpool.benchmark;
+
+import com.carpool.entity.Ride;
+import com.carpool.service.RideSearchIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ride Search Index Benchmark
+ *
+ * Departure window searches (a two and a half hour window, one day either
+ * side of the date) over active rides between ten cities spread over sixty
+ * days, answered by range scans of the route's skip list and, for comparison,
+ * by checking the route and departure of every ride (what a table scan does).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class RideSearchIndexBenchmark {
+
+    private static final String[] CITIES = {
+        "Mumbai", "Pune", "Delhi", "Jaipur", "Bangalore",
+        "Mysore", "Chennai", "Hyderabad", "Ahmedabad", "Surat"
+    };
+
+    private static final int DAYS = 60;
+
+    private static final int FLEX_DAYS = 1;
+
+    private static final int QUERIES = 1024;
+
+    @Param({"500000"})
+    private int rides;
+
+    private RideSearchIndex index;
+
+    private Ride[] indexed;
+
+    private int[][] queries;
+
+    private LocalDate firstDate;
+
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        index = new RideSearchIndex();
+        indexed = new Ride[rides];
+        firstDate = LocalDate.now().plusDays(1);
+
+        for (int i = 0; i < rides; i++) {
+            int from = random.nextInt(CITIES.length);
+            int to = (from + 1 + random.nextInt(CITIES.length - 1)) % CITIES.length;
+
+            Ride ride = new Ride();
+            ride.setId((long) i + 1);
+            ride.setStatus(Ride.RideStatus.ACTIVE);
+            ride.setFromLocation(CITIES[from]);
+            ride.setToLocation(CITIES[to]);
+            ride.setAvailableSeats(1 + random.nextInt(4));
+            ride.setDepartureDate(firstDate.plusDays(random.nextInt(DAYS)));
+            ride.setDepartureTime(LocalTime.of(random.nextInt(24), random.nextInt(4) * 15));
+            index.index(ride);
+            indexed[i] = ride;
+        }
+
+        // from, to, day offset and window start in minutes
+        queries = new int[QUERIES][];
+        for (int i = 0; i < QUERIES; i++) {
+            int from = random.nextInt(CITIES.length);
+            int to = (from + 1 + random.nextInt(CITIES.length - 1)) % CITIES.length;
+            queries[i] = new int[] {
+                from, to, FLEX_DAYS + random.nextInt(DAYS - 2 * FLEX_DAYS), random.nextInt(20 * 60)
+            };
+        }
+    }
+
+    @Benchmark
+    public List<RideSearchIndex.Match> windowSearch() {
+        int[] query = queries[next++ & (QUERIES - 1)];
+        LocalDate date = firstDate.plusDays(query[2]);
+        LocalTime earliest = LocalTime.MIN.plusMinutes(query[3]);
+        LocalTime latest = earliest.plusMinutes(150);
+
+        List<RideSearchIndex.Match> matches = new ArrayList<>();
+        for (LocalDate day = date.minusDays(FLEX_DAYS); !day.isAfter(date.plusDays(FLEX_DAYS)); day = day.plusDays(1)) {
+            matches.addAll(index.search(CITIES[query[0]], CITIES[query[1]], day.atTime(earliest), day.atTime(latest)));
+        }
+        return matches;
+    }
+
+    @Benchmark
+    public List<Long> scanAllRides() {
+        int[] query = queries[next++ & (QUERIES - 1)];
+        LocalDate date = firstDate.plusDays(query[2]);
+        LocalTime earliest = LocalTime.MIN.plusMinutes(query[3]);
+        LocalTime latest = earliest.plusMinutes(150);
+        LocalDateTime first = date.minusDays(FLEX_DAYS).atTime(earliest);
+        LocalDateTime last = date.plusDays(FLEX_DAYS).atTime(latest);
+
+        List<Long> matches = new ArrayList<>();
+        for (Ride ride : indexed) {
+            if (!ride.getFromLocation().equals(CITIES[query[0]]) || !ride.getToLocation().equals(CITIES[query[1]])) {
+                continue;
+            }
+            LocalDateTime departure = ride.getDepartureDate().atTime(ride.getDepartureTime());
+            LocalTime time = ride.getDepartureTime();
+            if (!departure.isBefore(first) && !departure.isAfter(last)
+                    && !time.isBefore(earliest) && !time.isAfter(latest)
+                    && ride.getAvailableSeats() > 0) {
+                matches.add(ride.getId());
+            }
+        }
+        return matches;
+    }
+}
@@ -0,0 +1,98 @@
+package com.carpool.benchmark;
+
+import com.carpool.dto.RideSummary;
+import com.carpool.entity.Booking;
+import com.carpool.entity.Ride;
+import com.carpool.entity.User;
+import com.carpool.repository.BookingRepository;
+import com.carpool.repository.RideRepository;
+import com.carpool.repository.UserRepository;
+import com.carpool.service.RideService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ride Service Benchmark
+ *
+ * The driver dashboard aggregation (rides plus per-ride booking statistics)
+ * for a driver with a varying number of rides, each with a few bookings.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RideServiceBenchmark {
+
+    private static final int BOOKINGS_PER_RIDE = 3;
+
+    @Param({"10", "100"})
+    private int ridesPerDriver;
+
+    private ConfigurableApplicationContext context;
+
+    private RideService rideService;
+
+    private Long driverId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        rideService = context.getBean(RideService.class);
+
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        RideRepository rideRepository = context.getBean(RideRepository.class);
+        BookingRepository bookingRepository = context.getBean(BookingRepository.class);
+
+        User driver = userRepository.save(
+            new User("Bench", "Driver", "bench.driver@example.com", "9000000001", "not-a-real-hash"));
+        driverId = driver.getId();
+
+        List<User> passengers = new ArrayList<>();
+        for (int i = 0; i < BOOKINGS_PER_RIDE; i++) {
+            passengers.add(userRepository.save(
+                new User("Bench", "Passenger", "bench.passenger" + i + "@example.com", "900000010" + i, "not-a-real-hash")));
+        }
+
+        LocalDate firstDate = LocalDate.now().plusDays(1);
+        for (int i = 0; i < ridesPerDriver; i++) {
+            Ride ride = rideRepository.save(new Ride(driver, "Mumbai", "Pune", firstDate.plusDays(i % 30),
+                LocalTime.of(6 + i % 12, 0), 4, 350.0, "Honda City", "MH12AB1234"));
+
+            for (User passenger : passengers) {
+                Booking booking = new Booking(passenger, ride, 1, null);
+                booking.setStatus(Booking.BookingStatus.CONFIRMED);
+                bookingRepository.save(booking);
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<RideSummary> getRidesByDriver() {
+        return rideService.getRidesByDriver(driverId);
+    }
+}
@@ -0,0 +1,114 @@
+package com.carpool.benchmark;
+
+import com.carpool.dto.BookingView;
+import com.carpool.dto.RideSummary;
+import com.carpool.entity.Booking;
+import com.carpool.entity.Ride;
+import com.carpool.entity.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization Benchmark
+ *
+ * JSON encoding of the ride and booking list responses, shaped the way the
+ * controllers return them, with an ObjectMapper configured like Spring Boot's.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"1", "50"})
+    private int size;
+
+    private ObjectMapper objectMapper;
+
+    private Map<String, Object> ridesResponse;
+
+    private Map<String, Object> bookingsResponse;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        List<RideSummary> rides = new ArrayList<>(size);
+        List<BookingView> bookings = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            User driver = user(1000L + i, "Driver");
+            Ride ride = ride(2000L + i, driver);
+            rides.add(RideSummary.from(ride));
+            bookings.add(BookingView.from(booking(3000L + i, user(4000L + i, "Passenger"), ride)));
+        }
+
+        ridesResponse = new HashMap<>();
+        ridesResponse.put("rides", rides);
+        ridesResponse.put("count", rides.size());
+        ridesResponse.put("nextCursor", "MjAyNS0wNy0yNnwwOTowMHwxNw");
+
+        bookingsResponse = new HashMap<>();
+        bookingsResponse.put("bookings", bookings);
+        bookingsResponse.put("count", bookings.size());
+    }
+
+    @Benchmark
+    public byte[] serializeRides() throws Exception {
+        return objectMapper.writeValueAsBytes(ridesResponse);
+    }
+
+    @Benchmark
+    public byte[] serializeBookings() throws Exception {
+        return objectMapper.writeValueAsBytes(bookingsResponse);
+    }
+
+    private static User user(Long id, String lastName) {
+        User user = new User("Bench", lastName, "bench" + id + "@example.com", "90000" + id, "not-a-real-hash");
+        user.setId(id);
+        user.setRating(4.6);
+        user.setTotalTrips(42);
+        return user;
+    }
+
+    private static Ride ride(Long id, User driver) {
+        Ride ride = new Ride(driver, "Mumbai Central", "Pune Station", LocalDate.of(2025, 7, 26),
+            LocalTime.of(9, 0), 3, 350.0, "Honda City", "MH12AB1234");
+        ride.setId(id);
+        ride.setAdditionalInfo("AC car, one stop at Lonavala");
+        ride.setInstantBooking(true);
+        ride.setAllowSmoking(false);
+        ride.setAllowPets(true);
+        ride.setAllowFood(true);
+        return ride;
+    }
+
+    private static Booking booking(Long id, User passenger, Ride ride) {
+        Booking booking = new Booking(passenger, ride, 2, "Looking forward to the trip!");
+        booking.setId(id);
+        booking.setStatus(Booking.BookingStatus.CONFIRMED);
+        booking.setCreatedAt(LocalDateTime.of(2025, 7, 20, 18, 30));
+        return booking;
+    }
+}
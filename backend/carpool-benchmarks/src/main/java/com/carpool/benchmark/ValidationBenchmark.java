@@ -0,0 +1,85 @@
+package com.carpool.benchmark;
+
+import com.carpool.util.ValidationUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validation Benchmark
+ *
+ * Input checks run on every registration, login and ride creation.
+ * Each check is measured with a valid and an invalid (or dirty) input.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ValidationBenchmark {
+
+    private String plainText = "Looking forward to the trip, see you at the station";
+
+    private String markupText = "<b>Hi</b> <script>alert('x')</script> pick-up near gate (2) & 10% off; \"ok\"";
+
+    private String validEmail = "john.doe@email.com";
+
+    private String invalidEmail = "john.doe.email.com@";
+
+    private String validPhone = "+91 98765 43210";
+
+    private String invalidPhone = "98765-43210";
+
+    private String validCarNumber = "MH 12 AB 1234";
+
+    private String invalidCarNumber = "mh 12 ab 1234";
+
+    @Benchmark
+    public String sanitizeTextPlain() {
+        return ValidationUtil.sanitizeText(plainText);
+    }
+
+    @Benchmark
+    public String sanitizeTextMarkup() {
+        return ValidationUtil.sanitizeText(markupText);
+    }
+
+    @Benchmark
+    public boolean isValidEmailValid() {
+        return ValidationUtil.isValidEmail(validEmail);
+    }
+
+    @Benchmark
+    public boolean isValidEmailInvalid() {
+        return ValidationUtil.isValidEmail(invalidEmail);
+    }
+
+    @Benchmark
+    public boolean isValidPhoneValid() {
+        return ValidationUtil.isValidPhone(validPhone);
+    }
+
+    @Benchmark
+    public boolean isValidPhoneInvalid() {
+        return ValidationUtil.isValidPhone(invalidPhone);
+    }
+
+    @Benchmark
+    public boolean isValidCarNumberValid() {
+        return ValidationUtil.isValidCarNumber(validCarNumber);
+    }
+
+    @Benchmark
+    public boolean isValidCarNumberInvalid() {
+        return ValidationUtil.isValidCarNumber(invalidCarNumber);
+    }
+}
@@ -0,0 +1,124 @@
+package com.carpool.benchmark;
+
+import com.carpool.util.ValidationUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Validation Comparison Benchmark
+ *
+ * The registration and ride-creation input checks, run once with the current
+ * single-pass ValidationUtil and once with the previous regex-based version
+ * (kept below as Legacy). Run with -prof gc to compare allocation per call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ValidationComparisonBenchmark {
+
+    private String firstName = "Priya";
+
+    private String lastName = "Sharma";
+
+    private String email = "priya.sharma@example.co.in";
+
+    private String phone = "+91 98765 43210";
+
+    private String fromLocation = "Mumbai Central, Mumbai";
+
+    private String toLocation = "Pune Station (East), Pune";
+
+    private String carNumber = "MH 12 AB 1234";
+
+    @Benchmark
+    public void registration(Blackhole blackhole) {
+        blackhole.consume(ValidationUtil.isValidEmail(email));
+        blackhole.consume(ValidationUtil.isValidPhone(phone));
+        blackhole.consume(ValidationUtil.sanitizeText(firstName));
+        blackhole.consume(ValidationUtil.sanitizeText(lastName));
+        blackhole.consume(ValidationUtil.stripWhitespace(phone));
+    }
+
+    @Benchmark
+    public void registrationLegacy(Blackhole blackhole) {
+        blackhole.consume(Legacy.isValidEmail(email));
+        blackhole.consume(Legacy.isValidPhone(phone));
+        blackhole.consume(Legacy.sanitizeText(firstName));
+        blackhole.consume(Legacy.sanitizeText(lastName));
+        blackhole.consume(phone.replaceAll("\\s", ""));
+    }
+
+    @Benchmark
+    public void rideCreation(Blackhole blackhole) {
+        blackhole.consume(ValidationUtil.isValidLocation(fromLocation));
+        blackhole.consume(ValidationUtil.isValidLocation(toLocation));
+        blackhole.consume(ValidationUtil.isValidCarNumber(carNumber));
+    }
+
+    @Benchmark
+    public void rideCreationLegacy(Blackhole blackhole) {
+        blackhole.consume(Legacy.isValidLocation(fromLocation));
+        blackhole.consume(Legacy.isValidLocation(toLocation));
+        blackhole.consume(Legacy.isValidCarNumber(carNumber));
+    }
+
+    /**
+     * The regex-based validators ValidationUtil used before the single-pass rewrite
+     */
+    static final class Legacy {
+
+        private static final Pattern EMAIL_PATTERN = Pattern.compile(
+            "^[a-zA-Z0-9_+&*-]+(?:\\.[a-zA-Z0-9_+&*-]+)*@(?:[a-zA-Z0-9-]+\\.)+[a-zA-Z]{2,7}$"
+        );
+
+        private static final Pattern PHONE_PATTERN = Pattern.compile("^[+]?[0-9]{10,15}$");
+
+        private static final Pattern CAR_NUMBER_PATTERN = Pattern.compile(
+            "^[A-Z]{2}[0-9]{1,2}[A-Z]{1,3}[0-9]{1,4}$"
+        );
+
+        static boolean isValidEmail(String email) {
+            return email != null && EMAIL_PATTERN.matcher(email).matches();
+        }
+
+        static boolean isValidPhone(String phone) {
+            return phone != null && PHONE_PATTERN.matcher(phone.replaceAll("\\s", "")).matches();
+        }
+
+        static boolean isValidCarNumber(String carNumber) {
+            return carNumber != null && CAR_NUMBER_PATTERN.matcher(carNumber.replaceAll("\\s", "")).matches();
+        }
+
+        static String sanitizeText(String input) {
+            if (input == null) {
+                return null;
+            }
+            String sanitized = input.replaceAll("<[^>]*>", "");
+            sanitized = sanitized.replaceAll("[<>\"'%;()&+]", "");
+            sanitized = sanitized.trim();
+            return sanitized.isEmpty() ? null : sanitized;
+        }
+
+        static boolean isValidLocation(String location) {
+            if (location == null || location.trim().isEmpty()) {
+                return false;
+            }
+            String sanitized = sanitizeText(location);
+            return sanitized != null && sanitized.length() >= 2 && sanitized.length() <= 100;
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.carpool;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Main Application Class for Carpool Backend
@@ -10,6 +11,7 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
  * REST APIs for the carpool frontend.
  */
 @SpringBootApplication
+@EnableScheduling
 public class CarpoolApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,138 @@
+package com.carpool.config;
+
+import com.carpool.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Admission Control
+ *
+ * Caps the work holding database connections at the size of the connection pool.
+ * With virtual threads Tomcat accepts every request, so without a cap a burst
+ * would pile up inside the JDBC driver waiting for a Hikari connection.
+ * Here excess work parks on a fair semaphore, which unmounts a virtual thread
+ * from its carrier, and is turned away once it has waited longer than
+ * app.admission.max-wait.
+ *
+ * AdmissionControlFilter takes a permit for whole requests that use the
+ * database. Requests answered from memory (searches, event subscriptions) take
+ * one here only around their database work. The NDJSON stream, which runs on
+ * an async thread after the request thread has returned, takes over the
+ * request's permit (see tryAcquireForAsync).
+ *
+ * Enabled with app.admission.enabled=true (see application-virtual.properties);
+ * otherwise every call is admitted straight away.
+ */
+@Component
+public class AdmissionControl {
+
+    /**
+     * Request attribute holding the permit AdmissionControlFilter took for the request,
+     * until the filter releases it or a handler takes it over
+     */
+    static final String REQUEST_PERMIT_ATTRIBUTE = AdmissionControl.class.getName() + ".REQUEST_PERMIT";
+
+    private static final Logger logger = LoggerFactory.getLogger(AdmissionControl.class);
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.admission.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.admission.max-concurrent-requests:${spring.datasource.hikari.maximum-pool-size:10}}")
+    private int maxConcurrentRequests;
+
+    @Value("${app.admission.max-wait:2s}")
+    private Duration maxWait;
+
+    private Semaphore permits;
+
+    private Counter rejected;
+
+    @PostConstruct
+    void init() {
+        if (!enabled) {
+            return;
+        }
+        permits = new Semaphore(maxConcurrentRequests, true);
+        rejected = meterRegistry.counter("carpool.admission.rejected");
+        Gauge.builder("carpool.admission.waiting", permits, Semaphore::getQueueLength).register(meterRegistry);
+        Gauge.builder("carpool.admission.in.flight", permits, p -> maxConcurrentRequests - p.availablePermits())
+            .register(meterRegistry);
+        logger.info("Admission control enabled: {} concurrent requests, max wait {}", maxConcurrentRequests, maxWait);
+    }
+
+    /**
+     * Wait up to app.admission.max-wait for a permit; false when none came free.
+     * Every true must be followed by exactly one release().
+     */
+    public boolean tryAcquire() {
+        if (!enabled) {
+            return true;
+        }
+        try {
+            if (permits.tryAcquire(maxWait.toMillis(), TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        rejected.increment();
+        return false;
+    }
+
+    /**
+     * Wait for a permit like tryAcquire(), throwing ServiceUnavailableException when none came free
+     */
+    public void acquire() {
+        if (!tryAcquire()) {
+            throw new ServiceUnavailableException("Server is busy, please retry shortly");
+        }
+    }
+
+    /**
+     * Get a permit for work that carries on after the request thread has returned:
+     * the one AdmissionControlFilter holds for the request, or a new one as from
+     * tryAcquire(). Every true must be followed by exactly one release() when that
+     * work ends.
+     */
+    public boolean tryAcquireForAsync(HttpServletRequest request) {
+        if (request.getAttribute(REQUEST_PERMIT_ATTRIBUTE) != null) {
+            request.removeAttribute(REQUEST_PERMIT_ATTRIBUTE);
+            return true;
+        }
+        return tryAcquire();
+    }
+
+    public void release() {
+        if (enabled) {
+            permits.release();
+        }
+    }
+
+    /**
+     * Run database work under a permit
+     */
+    public <T> T call(Supplier<T> work) {
+        acquire();
+        try {
+            return work.get();
+        } finally {
+            release();
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.carpool.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Admission Control Filter
+ *
+ * Holds an AdmissionControl permit for the whole of each request that uses the
+ * database, and turns it away with 503 when none comes free in time.
+ *
+ * Requests that are answered from memory are left to take a permit only around
+ * their database work, so they are not throttled as if they held a connection:
+ * ride searches (in-memory indexes and the search and rides caches) and event
+ * stream subscriptions. The NDJSON ride stream reads its cursor on an async
+ * thread after the request thread has returned, so its handler takes over the
+ * request's permit and this filter leaves it to the stream to release.
+ *
+ * Enabled with app.admission.enabled=true (see application-virtual.properties).
+ */
+@Component
+// Right after CorrelationIdFilter, so a rejected request still gets its correlation ID
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+@ConditionalOnProperty(name = "app.admission.enabled", havingValue = "true")
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    private static final Pattern IN_MEMORY_PATHS =
+        Pattern.compile("/rides/(search|nearby|corridor|events|\\d+/events)");
+
+    @Autowired
+    private AdmissionControl admissionControl;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        // Preflights and health probes never touch the database
+        String path = request.getServletPath();
+        if (HttpMethod.OPTIONS.matches(request.getMethod())
+                || path.startsWith("/actuator")
+                || path.startsWith("/health")) {
+            return true;
+        }
+        return HttpMethod.GET.matches(request.getMethod()) && IN_MEMORY_PATHS.matcher(path).matches();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (!admissionControl.tryAcquire()) {
+            reject(response);
+            return;
+        }
+
+        request.setAttribute(AdmissionControl.REQUEST_PERMIT_ATTRIBUTE, Boolean.TRUE);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            // Unless a handler took the permit over for work that outlives the request thread
+            if (request.getAttribute(AdmissionControl.REQUEST_PERMIT_ATTRIBUTE) != null) {
+                request.removeAttribute(AdmissionControl.REQUEST_PERMIT_ATTRIBUTE);
+                admissionControl.release();
+            }
+        }
+    }
+
+    private void reject(HttpServletResponse response) throws IOException {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("timestamp", LocalDateTime.now());
+        body.put("status", HttpStatus.SERVICE_UNAVAILABLE.value());
+        body.put("error", "Service Unavailable");
+        body.put("message", "Server is busy, please retry shortly");
+
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), body);
+    }
+}
@@ -0,0 +1,70 @@
+package com.carpool.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Cache Configuration
+ *
+ * Bounded, time-limited Caffeine caches for the hot read paths.
+ * Evictions and puts made inside a transaction are applied after it commits,
+ * so a rolled-back write never leaves the cache out of step with the database.
+ *
+ * Hit and miss counts are published through actuator as the cache.gets metric.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String USERS = "users";
+
+    public static final String RIDES = "rides";
+
+    public static final String RIDE_SEARCH = "rideSearch";
+
+    @Value("${app.cache.users.max-size:10000}")
+    private long usersMaxSize;
+
+    @Value("${app.cache.users.ttl:10m}")
+    private Duration usersTtl;
+
+    @Value("${app.cache.rides.max-size:10000}")
+    private long ridesMaxSize;
+
+    @Value("${app.cache.rides.ttl:5m}")
+    private Duration ridesTtl;
+
+    @Value("${app.cache.ride-search.max-size:2000}")
+    private long rideSearchMaxSize;
+
+    @Value("${app.cache.ride-search.ttl:10m}")
+    private Duration rideSearchTtl;
+
+    @Bean
+    public CacheManager cacheManager() {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        // Only the caches below exist; an unknown name must not create an unbounded cache
+        cacheManager.setCacheNames(List.of());
+        cacheManager.registerCustomCache(USERS, newCache(usersMaxSize, usersTtl));
+        cacheManager.registerCustomCache(RIDES, newCache(ridesMaxSize, ridesTtl));
+        cacheManager.registerCustomCache(RIDE_SEARCH, newCache(rideSearchMaxSize, rideSearchTtl));
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+
+    private static com.github.benmanes.caffeine.cache.Cache<Object, Object> newCache(long maxSize, Duration ttl) {
+        return Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(ttl)
+            .recordStats()
+            .build();
+    }
+}
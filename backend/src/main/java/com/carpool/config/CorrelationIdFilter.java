@@ -0,0 +1,77 @@
+package com.carpool.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.MDC;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.UUID;
+
+/**
+ * Correlation ID Filter
+ *
+ * Tags every request with a correlation ID, taken from the caller's
+ * X-Correlation-ID (or X-Request-ID) header when it is well formed and
+ * generated otherwise. The ID is put in the logging MDC as "correlationId",
+ * so every log line written while serving the request carries it, and is
+ * echoed back in the X-Correlation-ID response header.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class CorrelationIdFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "X-Correlation-ID";
+
+    public static final String MDC_KEY = "correlationId";
+
+    private static final String REQUEST_ID_HEADER = "X-Request-ID";
+
+    private static final int MAX_LENGTH = 64;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String correlationId = resolve(request);
+
+        MDC.put(MDC_KEY, correlationId);
+        response.setHeader(HEADER, correlationId);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            MDC.remove(MDC_KEY);
+        }
+    }
+
+    private String resolve(HttpServletRequest request) {
+        String supplied = request.getHeader(HEADER);
+        if (supplied == null) {
+            supplied = request.getHeader(REQUEST_ID_HEADER);
+        }
+        return isWellFormed(supplied) ? supplied : UUID.randomUUID().toString();
+    }
+
+    /**
+     * Only short IDs of letters, digits, '-', '_' and '.' are trusted, so a
+     * caller cannot inject log lines or oversized values
+     */
+    private static boolean isWellFormed(String id) {
+        if (id == null || id.isEmpty() || id.length() > MAX_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < id.length(); i++) {
+            char c = id.charAt(i);
+            boolean allowed = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                || c == '-' || c == '_' || c == '.';
+            if (!allowed) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
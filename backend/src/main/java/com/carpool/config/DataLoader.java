@@ -6,8 +6,12 @@ import com.carpool.entity.Booking;
 import com.carpool.repository.UserRepository;
 import com.carpool.repository.RideRepository;
 import com.carpool.repository.BookingRepository;
+import com.carpool.util.Polyline;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 
@@ -18,11 +22,15 @@ import java.time.LocalTime;
  * Data Loader
  * 
  * Loads sample data into the database on application startup.
- * This is useful for development and testing purposes.
+ * This is useful for development and testing purposes, so it only runs
+ * with the development profile.
  */
 @Component
+@Profile("development")
 public class DataLoader implements CommandLineRunner {
 
+    private static final Logger logger = LoggerFactory.getLogger(DataLoader.class);
+
     @Autowired
     private UserRepository userRepository;
 
@@ -37,21 +45,9 @@ public class DataLoader implements CommandLineRunner {
 
     @Override
     public void run(String... args) throws Exception {
-        fixExistingUserData();
         loadSampleData();
     }
     
-    private void fixExistingUserData() {
-        // Fix existing users with null isActive values
-        userRepository.findAll().forEach(user -> {
-            if (user.getIsActive() == null) {
-                user.setIsActive(true);
-                userRepository.save(user);
-                System.out.println("Fixed isActive for user: " + user.getEmail());
-            }
-        });
-    }
-
     private void loadSampleData() {
         // Check if data already exists
         if (userRepository.count() > 3) {
@@ -72,6 +68,8 @@ public class DataLoader implements CommandLineRunner {
         user1.setPassword(passwordEncoder.encode("password123"));
         user1.setRating(4.5);
         user1.setTotalTrips(25);
+        user1.setRatingSum(4.5 * 25);
+        user1.setRatingCount(25);
         user1.setIsActive(true);
         user1 = userRepository.save(user1);
 
@@ -83,6 +81,8 @@ public class DataLoader implements CommandLineRunner {
         user2.setPassword(passwordEncoder.encode("password123"));
         user2.setRating(4.8);
         user2.setTotalTrips(15);
+        user2.setRatingSum(4.8 * 15);
+        user2.setRatingCount(15);
         user2.setIsActive(true);
         user2 = userRepository.save(user2);
 
@@ -94,6 +94,8 @@ public class DataLoader implements CommandLineRunner {
         user3.setPassword(passwordEncoder.encode("password123"));
         user3.setRating(4.2);
         user3.setTotalTrips(30);
+        user3.setRatingSum(4.2 * 30);
+        user3.setRatingCount(30);
         user3.setIsActive(true);
         user3 = userRepository.save(user3);
 
@@ -102,9 +104,20 @@ public class DataLoader implements CommandLineRunner {
         ride1.setDriver(user1);
         ride1.setFromLocation("Mumbai");
         ride1.setToLocation("Pune");
+        ride1.setPickupLatitude(19.0176);
+        ride1.setPickupLongitude(72.8562);
+        ride1.setDropLatitude(18.5286);
+        ride1.setDropLongitude(73.8743);
+        // Via Vashi, Panvel, Khopoli, Lonavala, Talegaon and Pimpri
+        ride1.setRoutePolyline(Polyline.encode(new int[] {
+            1901760, 7285620, 1907710, 7299860, 1898940, 7311750, 1878900, 7334320,
+            1875460, 7340620, 1873500, 7367570, 1862980, 7379970, 1852860, 7387430
+        }));
         ride1.setDepartureDate(LocalDate.now().plusDays(1));
         ride1.setDepartureTime(LocalTime.of(9, 0));
         ride1.setAvailableSeats(3);
+        ride1.setStops("Lonavala");
+        ride1.setSegmentSeats(new int[] {3, 3});
         ride1.setPricePerSeat(500.0);
         ride1.setCarModel("Honda City");
         ride1.setCarNumber("MH12AB1234");
@@ -117,6 +130,10 @@ public class DataLoader implements CommandLineRunner {
         ride2.setDriver(user2);
         ride2.setFromLocation("Delhi");
         ride2.setToLocation("Gurgaon");
+        ride2.setPickupLatitude(28.6430);
+        ride2.setPickupLongitude(77.2195);
+        ride2.setDropLatitude(28.4595);
+        ride2.setDropLongitude(77.0266);
         ride2.setDepartureDate(LocalDate.now().plusDays(1));
         ride2.setDepartureTime(LocalTime.of(18, 30));
         ride2.setAvailableSeats(2);
@@ -132,6 +149,10 @@ public class DataLoader implements CommandLineRunner {
         ride3.setDriver(user3);
         ride3.setFromLocation("Bangalore");
         ride3.setToLocation("Mysore");
+        ride3.setPickupLatitude(12.9784);
+        ride3.setPickupLongitude(77.5697);
+        ride3.setDropLatitude(12.3052);
+        ride3.setDropLongitude(76.6552);
         ride3.setDepartureDate(LocalDate.now().plusDays(2));
         ride3.setDepartureTime(LocalTime.of(7, 0));
         ride3.setAvailableSeats(4);
@@ -143,8 +164,8 @@ public class DataLoader implements CommandLineRunner {
         ride3.setAllowFood(true);
         rideRepository.save(ride3);
 
-        System.out.println("Sample data loaded successfully!");
-        System.out.println("Sample users created - you can now test booking functionality!");
-        System.out.println("Login credentials: john@example.com / password123, jane@example.com / password123, bob@example.com / password123");
+        logger.info("Sample data loaded successfully!");
+        logger.info("Sample users created - you can now test booking functionality!");
+        logger.info("Login credentials: john@example.com / password123, jane@example.com / password123, bob@example.com / password123");
     }
 }
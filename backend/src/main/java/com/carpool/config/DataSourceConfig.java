@@ -0,0 +1,148 @@
+package com.carpool.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.CacheStoreMode;
+import jakarta.persistence.EntityManager;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.AbstractEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.transaction.TransactionDefinition;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Data Source Configuration
+ *
+ * Read/write splitting, switched on by listing replica JDBC URLs in
+ * app.datasource.replica.urls. The primary pool is still configured through
+ * spring.datasource.*; read-only transactions are routed to the replicas by
+ * {@link ReplicaRoutingDataSource}. Without replica URLs Spring Boot's single
+ * data source is used unchanged.
+ *
+ * The condition is evaluated when the bean definitions are built. The AOT build
+ * (-Paot, used by the Dockerfile) builds them for the production profile without
+ * replica URLs, so an image run with -Dspring.aot.enabled=true ignores
+ * app.datasource.replica.urls; run it without that flag to use replicas.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.replica.urls")
+public class DataSourceConfig {
+
+    @Value("${app.datasource.replica.urls}")
+    private String[] replicaUrls;
+
+    @Value("${app.datasource.replica.username:${spring.datasource.username}}")
+    private String replicaUsername;
+
+    @Value("${app.datasource.replica.password:${spring.datasource.password}}")
+    private String replicaPassword;
+
+    @Value("${app.datasource.replica.maximum-pool-size:${spring.datasource.hikari.maximum-pool-size:10}}")
+    private int replicaPoolSize;
+
+    // Kept short: a replica that is down must not stall the lag check for long
+    @Value("${app.datasource.replica.connection-timeout-ms:2000}")
+    private long replicaConnectionTimeout;
+
+    @Value("${app.datasource.replica.max-lag-seconds:5}")
+    private long maxLagSeconds;
+
+    /**
+     * The primary (read-write) pool, configured like Spring Boot's own
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(HikariDataSource primaryDataSource,
+                                                             DataSourceProperties properties,
+                                                             MeterRegistry meterRegistry) {
+        List<HikariDataSource> replicaPools = new ArrayList<>(replicaUrls.length);
+        for (int i = 0; i < replicaUrls.length; i++) {
+            HikariDataSource pool = new HikariDataSource();
+            pool.setPoolName("replica-" + (i + 1));
+            pool.setJdbcUrl(replicaUrls[i].trim());
+            pool.setUsername(replicaUsername);
+            pool.setPassword(replicaPassword);
+            pool.setDriverClassName(properties.getDriverClassName());
+            pool.setMaximumPoolSize(replicaPoolSize);
+            pool.setConnectionTimeout(replicaConnectionTimeout);
+            pool.setReadOnly(true);
+            pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            replicaPools.add(pool);
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, replicaPools, maxLagSeconds, meterRegistry);
+    }
+
+    /**
+     * Give each transaction its own connection. By default a Hibernate session holds
+     * on to its first connection until it closes, and with open-session-in-view the
+     * session lives for the whole request: a write after a read in the same request
+     * would then run on the read's replica connection.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer connectionPerTransaction() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+            PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+
+    /**
+     * Keep replica rows out of Hibernate's second-level cache: read-only transactions
+     * may read from it but not put into it, so entries are only filled by the primary
+     */
+    @Bean
+    public static BeanPostProcessor replicaAwareJpaDialect() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof AbstractEntityManagerFactoryBean factory) {
+                    factory.setJpaDialect(new ReplicaAwareJpaDialect());
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * The data source JPA, Flyway and JdbcTemplate use. The lazy proxy defers taking
+     * a physical connection until the first statement, when the transaction's
+     * read-only flag is known and the routing can act on it.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    static class ReplicaAwareJpaDialect extends HibernateJpaDialect {
+
+        @Override
+        public Object beginTransaction(EntityManager entityManager, TransactionDefinition definition)
+                throws SQLException {
+            // Set on every transaction: with open-session-in-view one session serves several.
+            // A property rather than the session cache mode, which find() resets from it
+            entityManager.setProperty(AvailableSettings.JAKARTA_SHARED_CACHE_STORE_MODE,
+                                      definition.isReadOnly() ? CacheStoreMode.BYPASS : CacheStoreMode.USE);
+            return super.beginTransaction(entityManager, definition);
+        }
+    }
+}
@@ -5,9 +5,13 @@ import io.swagger.v3.oas.models.info.Contact;
 import io.swagger.v3.oas.models.info.Info;
 import io.swagger.v3.oas.models.info.License;
 import io.swagger.v3.oas.models.servers.Server;
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
 
 import java.util.List;
 
@@ -15,6 +19,8 @@ import java.util.List;
  * API Documentation Configuration
  * 
  * Configures Swagger/OpenAPI documentation for the API endpoints.
+ * The documentation beans are created on the first request to /v3/api-docs
+ * or the Swagger UI rather than at startup.
  */
 @Configuration
 public class OpenApiConfig {
@@ -22,7 +28,35 @@ public class OpenApiConfig {
     @Value("${server.servlet.context-path:/api}")
     private String contextPath;
 
+    /**
+     * Mark springdoc's API documentation beans lazy, so they stay out of the startup path.
+     * The Swagger UI beans stay eager: they register its static resource handlers.
+     */
     @Bean
+    public static BeanFactoryPostProcessor lazySpringdocBeans() {
+        return beanFactory -> {
+            for (String name : beanFactory.getBeanDefinitionNames()) {
+                BeanDefinition definition = beanFactory.getBeanDefinition(name);
+                if (isApiDocsBean(definition)) {
+                    definition.setLazyInit(true);
+                }
+            }
+        };
+    }
+
+    private static boolean isApiDocsBean(BeanDefinition definition) {
+        String className = definition.getBeanClassName();
+        if (className == null && definition instanceof AnnotatedBeanDefinition annotated
+                && annotated.getFactoryMethodMetadata() != null) {
+            className = annotated.getFactoryMethodMetadata().getDeclaringClassName();
+        }
+        return className != null && className.startsWith("org.springdoc.")
+            && !className.startsWith("org.springdoc.webmvc.ui.")
+            && !className.equals("org.springdoc.core.configuration.SpringDocUIConfiguration");
+    }
+
+    @Bean
+    @Lazy
     public OpenAPI carpoolOpenAPI() {
         Server devServer = new Server();
         devServer.setUrl("http://localhost:8080" + contextPath);
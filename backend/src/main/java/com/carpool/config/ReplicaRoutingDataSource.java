@@ -0,0 +1,191 @@
+package com.carpool.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Replica Routing Data Source
+ *
+ * Sends the connections of read-only transactions (@Transactional(readOnly = true),
+ * which includes Spring Data's own read methods) to the read replicas, round-robin
+ * over those that are reachable and no further than max-lag-seconds behind the
+ * primary. Everything else goes to the primary, and so do reads while no replica
+ * qualifies (counted as carpool.datasource.replica.fallback).
+ *
+ * Replica lag is checked on a schedule with SHOW REPLICA STATUS and published as
+ * carpool.datasource.replica.lag. With a negative max-lag-seconds a replica only
+ * has to be reachable, e.g. for two local instances that do not replicate.
+ *
+ * Must be wrapped in a LazyConnectionDataSourceProxy: whether a transaction is
+ * read-only is only known after the transaction manager has asked for its connection.
+ *
+ * Reads that fill a cache go through {@link #readFromPrimary}: a replica may still
+ * return the row from before the change whose eviction emptied the entry, and the
+ * cache would keep that copy long after the replica caught up.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    static final String PRIMARY = "primary";
+
+    private static final ThreadLocal<Boolean> PRIMARY_READS = new ThreadLocal<>();
+
+    private final List<Replica> replicas = new ArrayList<>();
+
+    private final long maxLagSeconds;
+
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    private final Counter primaryFallbacks;
+
+    public ReplicaRoutingDataSource(DataSource primary, List<HikariDataSource> replicaPools,
+                                    long maxLagSeconds, MeterRegistry meterRegistry) {
+        this.maxLagSeconds = maxLagSeconds;
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (HikariDataSource pool : replicaPools) {
+            Replica replica = new Replica(pool);
+            replicas.add(replica);
+            targets.put(pool.getPoolName(), pool);
+            Gauge.builder("carpool.datasource.replica.lag", replica, r -> r.lagSeconds)
+                .tag("replica", pool.getPoolName())
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+
+        primaryFallbacks = meterRegistry.counter("carpool.datasource.replica.fallback");
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        super.afterPropertiesSet();
+        // Route reads to replicas from the first request rather than after the first check
+        checkReplicas();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (replicas.isEmpty() || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                || PRIMARY_READS.get() != null) {
+            return PRIMARY;
+        }
+
+        int size = replicas.size();
+        int start = Math.floorMod(nextReplica.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.usable) {
+                return replica.pool.getPoolName();
+            }
+        }
+
+        primaryFallbacks.increment();
+        return PRIMARY;
+    }
+
+    /**
+     * Run a read on the primary even in a read-only transaction. Takes effect when the
+     * read's statements are the transaction's first (its connection is chosen then);
+     * a transaction that already read from a replica keeps that connection.
+     */
+    public static <T> T readFromPrimary(Supplier<T> read) {
+        if (PRIMARY_READS.get() != null) {
+            return read.get();
+        }
+        PRIMARY_READS.set(Boolean.TRUE);
+        try {
+            return read.get();
+        } finally {
+            PRIMARY_READS.remove();
+        }
+    }
+
+    /**
+     * Re-check every replica's reachability and lag
+     */
+    @Scheduled(fixedDelayString = "${app.datasource.replica.lag-check-interval-ms:1000}")
+    public void checkReplicas() {
+        for (Replica replica : replicas) {
+            boolean usable = check(replica);
+            if (usable != replica.usable) {
+                if (usable) {
+                    logger.info("Replica {} in rotation (lag {}s)", replica.pool.getPoolName(), replica.lagSeconds);
+                } else {
+                    logger.warn("Replica {} taken out of rotation (lag {}s, max {}s)",
+                        replica.pool.getPoolName(), replica.lagSeconds, maxLagSeconds);
+                }
+            }
+            replica.usable = usable;
+        }
+    }
+
+    private boolean check(Replica replica) {
+        try (Connection connection = replica.pool.getConnection()) {
+            if (maxLagSeconds < 0) {
+                replica.lagSeconds = 0;
+                return connection.isValid(1);
+            }
+
+            try (Statement statement = connection.createStatement();
+                 ResultSet status = statement.executeQuery("SHOW REPLICA STATUS")) {
+                // No row: not a replica; NULL lag: replication is stopped
+                long lag = status.next() ? status.getLong("Seconds_Behind_Source") : -1;
+                if (lag < 0 || status.wasNull()) {
+                    replica.lagSeconds = Double.NaN;
+                    return false;
+                }
+                replica.lagSeconds = lag;
+                return lag <= maxLagSeconds;
+            }
+        } catch (SQLException e) {
+            logger.debug("Replica {} check failed: {}", replica.pool.getPoolName(), e.getMessage());
+            replica.lagSeconds = Double.NaN;
+            return false;
+        }
+    }
+
+    /**
+     * Close the replica pools (the primary pool is a bean of its own)
+     */
+    public void close() {
+        for (Replica replica : replicas) {
+            replica.pool.close();
+        }
+    }
+
+    private static final class Replica {
+
+        private final HikariDataSource pool;
+
+        private volatile boolean usable;
+
+        private volatile double lagSeconds = Double.NaN;
+
+        private Replica(HikariDataSource pool) {
+            this.pool = pool;
+        }
+    }
+}
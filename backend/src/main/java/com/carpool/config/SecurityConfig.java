@@ -1,18 +1,32 @@
 package com.carpool.config;
 
+import com.carpool.security.JwtAuthenticationFilter;
+import com.carpool.security.JwtTokenProvider;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
+import java.io.IOException;
+import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * Security Configuration
@@ -20,16 +34,28 @@ import java.util.Arrays;
  * Configures security settings including:
  * - Password encoding
  * - CORS configuration
- * - Public endpoints
+ * - Public endpoints (reads, registration, login, health)
  * - Session management
+ * - Stateless JWT authentication (Authorization: Bearer token), required to
+ *   create, change or delete rides and bookings and to rate users
  */
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
 
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${app.password.bcrypt-strength:10}")
+    private int bcryptStrength;
+
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        // Hashes made with a lower strength are upgraded on the user's next login
+        return new BCryptPasswordEncoder(bcryptStrength);
     }
 
     @Bean
@@ -38,21 +64,35 @@ public class SecurityConfig {
             .cors(cors -> cors.configurationSource(corsConfigurationSource()))
             .csrf(csrf -> csrf.disable())
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+            .addFilterBefore(new JwtAuthenticationFilter(jwtTokenProvider, objectMapper),
+                             UsernamePasswordAuthenticationFilter.class)
+            .exceptionHandling(exceptions -> exceptions
+                .authenticationEntryPoint((request, response, e) -> unauthorized(response)))
             .authorizeHttpRequests(authz -> authz
-                // Public endpoints
-                .requestMatchers("/api/health/**").permitAll()
-                .requestMatchers("/api/users/register").permitAll()
-                .requestMatchers("/api/users/login").permitAll()
-                .requestMatchers("/api/rides/**").permitAll() // For demo purposes
-                .requestMatchers("/api/bookings/**").permitAll() // For demo purposes
-                .requestMatchers("/api/users/**").permitAll() // For demo purposes
-                // All other endpoints require authentication (commented for demo)
+                .requestMatchers(HttpMethod.OPTIONS).permitAll()
+                // Changes act as the signed-in user, so they need a token
+                .requestMatchers(HttpMethod.POST, "/rides/**", "/api/bookings/**").authenticated()
+                .requestMatchers(HttpMethod.PUT, "/rides/**", "/api/bookings/**", "/users/*/rating").authenticated()
+                .requestMatchers(HttpMethod.DELETE, "/rides/**", "/api/bookings/**").authenticated()
+                // Reads, registration, login and health are public
                 .anyRequest().permitAll()
             );
 
         return http.build();
     }
 
+    private void unauthorized(HttpServletResponse response) throws IOException {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("timestamp", LocalDateTime.now());
+        body.put("status", HttpStatus.UNAUTHORIZED.value());
+        body.put("error", "Unauthorized");
+        body.put("message", "Authentication required");
+
+        response.setStatus(HttpStatus.UNAUTHORIZED.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), body);
+    }
+
     @Bean
     public CorsConfigurationSource corsConfigurationSource() {
         CorsConfiguration configuration = new CorsConfiguration();
@@ -1,7 +1,10 @@
 package com.carpool.config;
 
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 /**
@@ -9,6 +12,10 @@ import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
  * 
  * Simple configuration for CORS to allow frontend communication.
  * Note: CORS bean configuration is handled in SecurityConfig to avoid conflicts.
+ * 
+ * Also registers open-session-in-view (in place of Spring Boot's) for every path but
+ * registration and login: an open session keeps the first connection it takes until the
+ * request ends, which for those two would include the time spent hashing the password.
  */
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
@@ -21,4 +28,15 @@ public class WebConfig implements WebMvcConfigurer {
                 .allowedHeaders("*")
                 .allowCredentials(true);
     }
+    
+    @Bean
+    public OpenEntityManagerInViewInterceptor openEntityManagerInViewInterceptor() {
+        return new OpenEntityManagerInViewInterceptor();
+    }
+    
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addWebRequestInterceptor(openEntityManagerInViewInterceptor())
+                .excludePathPatterns("/users/register", "/users/login");
+    }
 }
@@ -1,9 +1,13 @@
 package com.carpool.controller;
 
 import com.carpool.dto.BookingCreationDTO;
+import com.carpool.dto.BookingView;
 import com.carpool.entity.Booking;
+import com.carpool.security.SecurityUtils;
 import com.carpool.service.BookingService;
 import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -23,6 +27,8 @@ import java.util.Map;
 @CrossOrigin(origins = "http://localhost:5173") // Allow frontend to access
 public class BookingController {
     
+    private static final Logger logger = LoggerFactory.getLogger(BookingController.class);
+    
     @Autowired
     private BookingService bookingService;
     
@@ -31,20 +37,20 @@ public class BookingController {
      */
     @PostMapping
     public ResponseEntity<?> createBooking(@Valid @RequestBody BookingCreationDTO bookingDTO,
-                                           @RequestParam Long passengerId) {
+                                           @RequestParam(required = false) Long passengerId) {
         try {
-            System.out.println("Creating booking for passenger: " + passengerId + ", ride: " + bookingDTO.getRideId());
+            passengerId = SecurityUtils.resolveUserId(passengerId);
+            logger.debug("Creating booking for passenger: {}, ride: {}", passengerId, bookingDTO.getRideId());
             Booking booking = bookingService.createBooking(bookingDTO, passengerId);
             
             Map<String, Object> response = new HashMap<>();
             response.put("id", booking.getId());
             response.put("message", "Booking created successfully");
-            response.put("booking", booking);
+            response.put("booking", BookingView.from(booking));
             
             return ResponseEntity.ok(response);
         } catch (Exception e) {
-            System.err.println("Error creating booking: " + e.getMessage());
-            e.printStackTrace();
+            logger.warn("Error creating booking: {}", e.getMessage(), e);
             Map<String, String> error = new HashMap<>();
             error.put("error", e.getMessage());
             return ResponseEntity.badRequest().body(error);
@@ -57,8 +63,8 @@ public class BookingController {
     @GetMapping("/user/{passengerId}")
     public ResponseEntity<?> getBookingsByPassenger(@PathVariable Long passengerId) {
         try {
-            System.out.println("Fetching bookings for passenger: " + passengerId);
-            List<Booking> bookings = bookingService.getBookingsByPassenger(passengerId);
+            logger.debug("Fetching bookings for passenger: {}", passengerId);
+            List<BookingView> bookings = forCaller(bookingService.getBookingsByPassenger(passengerId));
             
             Map<String, Object> response = new HashMap<>();
             response.put("bookings", bookings);
@@ -66,8 +72,7 @@ public class BookingController {
             
             return ResponseEntity.ok(response);
         } catch (Exception e) {
-            System.err.println("Error fetching passenger bookings: " + e.getMessage());
-            e.printStackTrace();
+            logger.warn("Error fetching passenger bookings: {}", e.getMessage(), e);
             Map<String, String> error = new HashMap<>();
             error.put("error", e.getMessage());
             return ResponseEntity.badRequest().body(error);
@@ -80,7 +85,7 @@ public class BookingController {
     @GetMapping("/passenger/{passengerId}")
     public ResponseEntity<?> getBookingsByPassengerAlt(@PathVariable Long passengerId) {
         try {
-            List<Booking> bookings = bookingService.getBookingsByPassenger(passengerId);
+            List<BookingView> bookings = forCaller(bookingService.getBookingsByPassenger(passengerId));
             
             Map<String, Object> response = new HashMap<>();
             response.put("bookings", bookings);
@@ -100,7 +105,7 @@ public class BookingController {
     @GetMapping("/driver/{driverId}")
     public ResponseEntity<?> getBookingsForDriver(@PathVariable Long driverId) {
         try {
-            List<Booking> bookings = bookingService.getBookingsForDriver(driverId);
+            List<BookingView> bookings = forCaller(bookingService.getBookingsForDriver(driverId));
             
             Map<String, Object> response = new HashMap<>();
             response.put("bookings", bookings);
@@ -120,7 +125,7 @@ public class BookingController {
     @GetMapping("/{id}")
     public ResponseEntity<?> getBookingById(@PathVariable Long id) {
         try {
-            Booking booking = bookingService.getBookingById(id);
+            BookingView booking = bookingService.getBookingView(id).forViewer(SecurityUtils.currentUserId());
             return ResponseEntity.ok(booking);
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
@@ -135,14 +140,14 @@ public class BookingController {
     @PutMapping("/{id}/status")
     public ResponseEntity<?> updateBookingStatus(@PathVariable Long id,
                                                  @RequestParam String status,
-                                                 @RequestParam Long userId) {
+                                                 @RequestParam(required = false) Long userId) {
         try {
             Booking.BookingStatus bookingStatus = Booking.BookingStatus.valueOf(status.toUpperCase());
-            Booking booking = bookingService.updateBookingStatus(id, bookingStatus, userId);
+            Booking booking = bookingService.updateBookingStatus(id, bookingStatus, SecurityUtils.resolveUserId(userId));
             
             Map<String, Object> response = new HashMap<>();
             response.put("message", "Booking status updated successfully");
-            response.put("booking", booking);
+            response.put("booking", BookingView.from(booking));
             
             return ResponseEntity.ok(response);
         } catch (Exception e) {
@@ -158,8 +163,8 @@ public class BookingController {
     @GetMapping("/ride/{rideId}")
     public ResponseEntity<?> getBookingsByRide(@PathVariable Long rideId) {
         try {
-            System.out.println("Fetching bookings for ride: " + rideId);
-            List<Booking> bookings = bookingService.getBookingsByRide(rideId);
+            logger.debug("Fetching bookings for ride: {}", rideId);
+            List<BookingView> bookings = forCaller(bookingService.getBookingsByRide(rideId));
             
             Map<String, Object> response = new HashMap<>();
             response.put("bookings", bookings);
@@ -167,11 +172,19 @@ public class BookingController {
             
             return ResponseEntity.ok(response);
         } catch (Exception e) {
-            System.err.println("Error fetching ride bookings: " + e.getMessage());
-            e.printStackTrace();
+            logger.warn("Error fetching ride bookings: {}", e.getMessage(), e);
             Map<String, String> error = new HashMap<>();
             error.put("error", e.getMessage());
             return ResponseEntity.badRequest().body(error);
         }
     }
+    
+    /**
+     * The bookings as shown to the caller, with the driver's contact details
+     * only on the caller's own bookings
+     */
+    private static List<BookingView> forCaller(List<BookingView> bookings) {
+        Long userId = SecurityUtils.currentUserId();
+        return bookings.stream().map(booking -> booking.forViewer(userId)).toList();
+    }
 }
@@ -1,15 +1,31 @@
 package com.carpool.controller;
 
+import com.carpool.config.AdmissionControl;
 import com.carpool.dto.RideCreationDTO;
+import com.carpool.dto.RidePage;
+import com.carpool.dto.RideSummary;
 import com.carpool.entity.Ride;
+import com.carpool.exception.ServiceUnavailableException;
+import com.carpool.exception.TooManyRequestsException;
+import com.carpool.security.SecurityUtils;
 import com.carpool.service.RideService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDate;
+import java.time.LocalTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -25,22 +41,30 @@ import java.util.Map;
 @CrossOrigin(origins = "http://localhost:5173") // Allow frontend to access
 public class RideController {
     
+    private static final String NDJSON_VALUE = "application/x-ndjson";
+    
     @Autowired
     private RideService rideService;
     
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private AdmissionControl admissionControl;
+    
     /**
      * Create a new ride offer
      */
     @PostMapping
     public ResponseEntity<?> createRide(@Valid @RequestBody RideCreationDTO rideDTO, 
-                                        @RequestParam Long driverId) {
+                                        @RequestParam(required = false) Long driverId) {
         try {
-            Ride ride = rideService.createRide(rideDTO, driverId);
+            Ride ride = rideService.createRide(rideDTO, SecurityUtils.resolveUserId(driverId));
             
             Map<String, Object> response = new HashMap<>();
             response.put("id", ride.getId());
             response.put("message", "Ride created successfully");
-            response.put("ride", ride);
+            response.put("ride", RideSummary.from(ride));
             
             return ResponseEntity.ok(response);
         } catch (Exception e) {
@@ -51,21 +75,76 @@ public class RideController {
     }
     
     /**
-     * Search for available rides
+     * Search for available rides departing between earliestTime and latestTime
+     * on the date, or up to flexDays days either side of it (keyset paginated)
      */
     @GetMapping("/search")
     public ResponseEntity<?> searchRides(
             @RequestParam(required = false) String from,
             @RequestParam(required = false) String to,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.TIME) LocalTime earliestTime,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.TIME) LocalTime latestTime,
+            @RequestParam(required = false) Integer flexDays,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
         try {
-            List<Ride> rides = rideService.searchRides(from, to, date);
-            
-            Map<String, Object> response = new HashMap<>();
-            response.put("rides", rides);
-            response.put("count", rides.size());
-            
-            return ResponseEntity.ok(response);
+            RidePage page = rideService.searchRides(from, to, date, earliestTime, latestTime, flexDays,
+                                                    cursor, limit);
+            return ResponseEntity.ok(toResponse(page));
+        } catch (ServiceUnavailableException e) {
+            throw e;
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+    
+    /**
+     * Search rides by distance: departing within radiusKm of (fromLat, fromLng) and
+     * going to within radiusKm of (toLat, toLng) on the given date (keyset paginated)
+     */
+    @GetMapping("/nearby")
+    public ResponseEntity<?> findNearbyRides(
+            @RequestParam double fromLat,
+            @RequestParam double fromLng,
+            @RequestParam double toLat,
+            @RequestParam double toLng,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(required = false) Double radiusKm,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        try {
+            RidePage page = rideService.findNearbyRides(fromLat, fromLng, toLat, toLng, date, radiusKm, cursor, limit);
+            return ResponseEntity.ok(toResponse(page));
+        } catch (ServiceUnavailableException e) {
+            throw e;
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+    
+    /**
+     * Search rides whose route passes within distanceKm of the pickup and drop points (keyset paginated)
+     */
+    @GetMapping("/corridor")
+    public ResponseEntity<?> findCorridorRides(
+            @RequestParam double fromLat,
+            @RequestParam double fromLng,
+            @RequestParam double toLat,
+            @RequestParam double toLng,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(required = false) Double distanceKm,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        try {
+            RidePage page = rideService.findCorridorRides(fromLat, fromLng, toLat, toLng, date, distanceKm, cursor, limit);
+            return ResponseEntity.ok(toResponse(page));
+        } catch (ServiceUnavailableException e) {
+            throw e;
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
             error.put("error", e.getMessage());
@@ -74,18 +153,14 @@ public class RideController {
     }
     
     /**
-     * Get all active rides
+     * Get all active rides (keyset paginated)
      */
     @GetMapping
-    public ResponseEntity<?> getAllActiveRides() {
+    public ResponseEntity<?> getAllActiveRides(@RequestParam(required = false) String cursor,
+                                               @RequestParam(required = false) Integer limit) {
         try {
-            List<Ride> rides = rideService.getAllActiveRides();
-            
-            Map<String, Object> response = new HashMap<>();
-            response.put("rides", rides);
-            response.put("count", rides.size());
-            
-            return ResponseEntity.ok(response);
+            RidePage page = rideService.getActiveRides(cursor, limit);
+            return ResponseEntity.ok(toResponse(page));
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
             error.put("error", e.getMessage());
@@ -93,13 +168,53 @@ public class RideController {
         }
     }
     
+    /**
+     * Stream all active rides as NDJSON (one ride per line), for clients that
+     * send Accept: application/x-ndjson. The stream reads its cursor on an async
+     * thread, after AdmissionControlFilter is done with the request, so it takes
+     * over the request's admission permit and holds it until the stream ends (503
+     * when none comes free; like an event stream, it has no room for an error body).
+     */
+    @GetMapping(produces = NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamActiveRides(HttpServletRequest request) {
+        if (!admissionControl.tryAcquireForAsync(request)) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").build();
+        }
+        StreamingResponseBody body = out -> {
+            try {
+                rideService.streamActiveRides(ride -> {
+                    try {
+                        out.write(objectMapper.writeValueAsBytes(ride));
+                        out.write('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } finally {
+                admissionControl.release();
+            }
+        };
+        
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(NDJSON_VALUE))
+            .body(body);
+    }
+    
+    private Map<String, Object> toResponse(RidePage page) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("rides", page.getRides());
+        response.put("count", page.getRides().size());
+        response.put("nextCursor", page.getNextCursor());
+        return response;
+    }
+    
     /**
      * Get rides by driver
      */
     @GetMapping("/driver/{driverId}")
     public ResponseEntity<?> getRidesByDriver(@PathVariable Long driverId) {
         try {
-            List<Ride> rides = rideService.getRidesByDriver(driverId);
+            List<RideSummary> rides = rideService.getRidesByDriver(driverId);
             
             Map<String, Object> response = new HashMap<>();
             response.put("rides", rides);
@@ -113,13 +228,48 @@ public class RideController {
         }
     }
     
+    /**
+     * Live seat and status changes of a ride as Server-Sent Events, starting with its current state.
+     * An event stream has no room for an error body, so failures are a bare status.
+     */
+    @GetMapping(value = "/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> rideEvents(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(rideService.subscribeToRide(id));
+        } catch (TooManyRequestsException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).header(HttpHeaders.RETRY_AFTER, "1").build();
+        } catch (ServiceUnavailableException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").build();
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    /**
+     * Live seat and status changes of the rides from one place to another on a date,
+     * as Server-Sent Events
+     */
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> routeEvents(
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        try {
+            return ResponseEntity.ok(rideService.subscribeToRoute(from, to, date));
+        } catch (TooManyRequestsException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).header(HttpHeaders.RETRY_AFTER, "1").build();
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
     /**
      * Get ride by ID
      */
     @GetMapping("/{id}")
     public ResponseEntity<?> getRideById(@PathVariable Long id) {
         try {
-            Ride ride = rideService.getRideById(id);
+            RideSummary ride = rideService.getRideSummary(id);
             return ResponseEntity.ok(ride);
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
@@ -133,14 +283,15 @@ public class RideController {
      */
     @PutMapping("/{id}/status")
     public ResponseEntity<?> updateRideStatus(@PathVariable Long id, 
-                                              @RequestParam String status) {
+                                              @RequestParam String status,
+                                              @RequestParam(required = false) Long driverId) {
         try {
             Ride.RideStatus rideStatus = Ride.RideStatus.valueOf(status.toUpperCase());
-            Ride ride = rideService.updateRideStatus(id, rideStatus);
+            Ride ride = rideService.updateRideStatus(id, rideStatus, SecurityUtils.resolveUserId(driverId));
             
             Map<String, Object> response = new HashMap<>();
             response.put("message", "Ride status updated successfully");
-            response.put("ride", ride);
+            response.put("ride", RideSummary.from(ride));
             
             return ResponseEntity.ok(response);
         } catch (Exception e) {
@@ -155,9 +306,9 @@ public class RideController {
      */
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deleteRide(@PathVariable Long id, 
-                                        @RequestParam Long driverId) {
+                                        @RequestParam(required = false) Long driverId) {
         try {
-            rideService.deleteRide(id, driverId);
+            rideService.deleteRide(id, SecurityUtils.resolveUserId(driverId));
             
             Map<String, String> response = new HashMap<>();
             response.put("message", "Ride deleted successfully");
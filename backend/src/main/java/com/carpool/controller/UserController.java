@@ -3,6 +3,9 @@ package com.carpool.controller;
 import com.carpool.dto.UserLoginDTO;
 import com.carpool.dto.UserRegistrationDTO;
 import com.carpool.entity.User;
+import com.carpool.exception.TooManyRequestsException;
+import com.carpool.security.JwtTokenProvider;
+import com.carpool.service.RatingService;
 import com.carpool.service.UserService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -26,6 +29,12 @@ public class UserController {
     @Autowired
     private UserService userService;
     
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+    
+    @Autowired
+    private RatingService ratingService;
+    
     /**
      * Register a new user
      */
@@ -46,6 +55,9 @@ public class UserController {
             response.put("message", "User registered successfully");
             
             return ResponseEntity.ok(response);
+        } catch (TooManyRequestsException e) {
+            // Answered with 429 and Retry-After by GlobalExceptionHandler
+            throw e;
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
             error.put("error", e.getMessage());
@@ -70,9 +82,15 @@ public class UserController {
             response.put("phone", user.getPhone());
             response.put("rating", user.getRating());
             response.put("totalTrips", user.getTotalTrips());
+            response.put("token", jwtTokenProvider.generateToken(user));
+            response.put("tokenType", "Bearer");
+            response.put("expiresIn", jwtTokenProvider.getExpirationMs() / 1000);
             response.put("message", "Login successful");
             
             return ResponseEntity.ok(response);
+        } catch (TooManyRequestsException e) {
+            // Answered with 429 and Retry-After by GlobalExceptionHandler
+            throw e;
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
             error.put("error", e.getMessage());
@@ -107,20 +125,24 @@ public class UserController {
     }
     
     /**
-     * Update user rating
+     * Rate a user after a ride. Applied to the user's rating within a few seconds.
      */
     @PutMapping("/{id}/rating")
-    public ResponseEntity<?> updateUserRating(@PathVariable Long id, @RequestParam double rating) {
+    public ResponseEntity<?> updateUserRating(@PathVariable Long id, @RequestParam double rating,
+                                              @RequestParam Long rideId,
+                                              @RequestParam(required = false) Long raterId) {
         try {
-            User user = userService.updateUserRating(id, rating);
+            ratingService.submitRating(id, raterId, rideId, rating);
             
             Map<String, Object> response = new HashMap<>();
-            response.put("id", user.getId());
-            response.put("rating", user.getRating());
-            response.put("totalTrips", user.getTotalTrips());
-            response.put("message", "Rating updated successfully");
+            response.put("id", id);
+            response.put("rideId", rideId);
+            response.put("message", "Rating received");
             
-            return ResponseEntity.ok(response);
+            return ResponseEntity.accepted().body(response);
+        } catch (TooManyRequestsException e) {
+            // Answered with 429 and Retry-After by GlobalExceptionHandler
+            throw e;
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
             error.put("error", e.getMessage());
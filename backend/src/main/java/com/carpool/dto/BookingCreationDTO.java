@@ -2,6 +2,7 @@ package com.carpool.dto;
 
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
 
 /**
  * Booking Creation DTO
@@ -16,6 +17,13 @@ public class BookingCreationDTO {
     @Positive(message = "Seats booked must be positive")
     private Integer seatsBooked;
     
+    // Stop positions to ride between (0 = from location); the whole route when left out
+    @PositiveOrZero(message = "Pickup stop cannot be negative")
+    private Integer pickupStop;
+    
+    @Positive(message = "Drop stop must be positive")
+    private Integer dropStop;
+    
     private String bookingMessage;
     
     // Constructors
@@ -44,6 +52,22 @@ public class BookingCreationDTO {
         this.seatsBooked = seatsBooked;
     }
     
+    public Integer getPickupStop() {
+        return pickupStop;
+    }
+    
+    public void setPickupStop(Integer pickupStop) {
+        this.pickupStop = pickupStop;
+    }
+    
+    public Integer getDropStop() {
+        return dropStop;
+    }
+    
+    public void setDropStop(Integer dropStop) {
+        this.dropStop = dropStop;
+    }
+    
     public String getBookingMessage() {
         return bookingMessage;
     }
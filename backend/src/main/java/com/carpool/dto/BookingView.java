@@ -0,0 +1,77 @@
+package com.carpool.dto;
+
+import com.carpool.entity.Booking;
+import com.carpool.entity.Ride;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * Booking View
+ * 
+ * Read model of a booking with its ride and passenger, as returned by the API.
+ * Filled straight from a JPQL constructor expression. Carries the driver's
+ * contact details once the booking is confirmed, for the booking's passenger
+ * and driver only (see {@link #forViewer}).
+ */
+public record BookingView(
+    Long id,
+    Integer seatsBooked,
+    Integer pickupStop,
+    Integer dropStop,
+    Double totalAmount,
+    Booking.BookingStatus status,
+    String bookingMessage,
+    LocalDateTime createdAt,
+    RideSummary ride,
+    PublicUserView passenger,
+    ContactDetails driverContact
+) {
+    
+    /**
+     * Flat constructor used by JPQL constructor expressions
+     */
+    public BookingView(Long id, Integer seatsBooked, Integer pickupStop, Integer dropStop,
+                       Double totalAmount, Booking.BookingStatus status,
+                       String bookingMessage, LocalDateTime createdAt,
+                       Long rideId, String fromLocation, String toLocation,
+                       Double pickupLatitude, Double pickupLongitude, Double dropLatitude, Double dropLongitude,
+                       LocalDate departureDate, LocalTime departureTime, Integer availableSeats,
+                       int[] segmentSeats, Double pricePerSeat, String carModel, String carNumber,
+                       String stops, String additionalInfo, Boolean instantBooking, Boolean allowSmoking, Boolean allowPets, Boolean allowFood,
+                       Ride.RideStatus rideStatus, Long rideVersion, Long driverId, String driverFirstName, String driverLastName,
+                       Double driverRating, Integer driverTotalTrips, String driverPhone, String driverEmail,
+                       Long passengerId, String passengerFirstName, String passengerLastName,
+                       Double passengerRating, Integer passengerTotalTrips) {
+        this(id, seatsBooked, pickupStop, dropStop, totalAmount, status, bookingMessage, createdAt,
+             new RideSummary(rideId, fromLocation, toLocation, pickupLatitude, pickupLongitude,
+                             dropLatitude, dropLongitude, departureDate, departureTime, availableSeats,
+                             segmentSeats, pricePerSeat, carModel, carNumber, stops, additionalInfo,
+                             instantBooking, allowSmoking, allowPets, allowFood, rideStatus, rideVersion,
+                             driverId, driverFirstName, driverLastName, driverRating, driverTotalTrips),
+             new PublicUserView(passengerId, passengerFirstName, passengerLastName,
+                                passengerRating, passengerTotalTrips),
+             ContactDetails.forBooking(status, driverPhone, driverEmail));
+    }
+    
+    public static BookingView from(Booking booking) {
+        return new BookingView(booking.getId(), booking.getSeatsBooked(), booking.getPickupStop(),
+                               booking.getDropStop(), booking.getTotalAmount(),
+                               booking.getStatus(), booking.getBookingMessage(), booking.getCreatedAt(),
+                               RideSummary.from(booking.getRide()), PublicUserView.from(booking.getPassenger()),
+                               ContactDetails.forBooking(booking));
+    }
+    
+    /**
+     * This view as shown to a user: the driver's contact details are left out
+     * unless the user is the booking's passenger or its ride's driver
+     */
+    public BookingView forViewer(Long userId) {
+        if (driverContact == null || passenger.id().equals(userId) || ride.driver().id().equals(userId)) {
+            return this;
+        }
+        return new BookingView(id, seatsBooked, pickupStop, dropStop, totalAmount, status, bookingMessage,
+                               createdAt, ride, passenger, null);
+    }
+}
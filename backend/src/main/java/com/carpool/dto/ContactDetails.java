@@ -0,0 +1,32 @@
+package com.carpool.dto;
+
+import com.carpool.entity.Booking;
+import com.carpool.entity.User;
+
+/**
+ * Contact Details
+ * 
+ * A driver's phone and email, shared only with passengers whose booking
+ * on the driver's ride is confirmed or completed. Views of a booking drop
+ * them for anyone else (see {@link BookingView#forViewer}).
+ */
+public record ContactDetails(
+    String phone,
+    String email
+) {
+    
+    /**
+     * The driver's contact details for a booking, or null while it is not confirmed
+     */
+    public static ContactDetails forBooking(Booking.BookingStatus status, String phone, String email) {
+        if (status != Booking.BookingStatus.CONFIRMED && status != Booking.BookingStatus.COMPLETED) {
+            return null;
+        }
+        return new ContactDetails(phone, email);
+    }
+    
+    public static ContactDetails forBooking(Booking booking) {
+        User driver = booking.getRide().getDriver();
+        return forBooking(booking.getStatus(), driver.getPhone(), driver.getEmail());
+    }
+}
@@ -0,0 +1,23 @@
+package com.carpool.dto;
+
+import com.carpool.entity.User;
+
+/**
+ * Public User View
+ * 
+ * The part of a user that other users may see (driver of a ride,
+ * passenger of a booking). Never carries credentials or contact details.
+ */
+public record PublicUserView(
+    Long id,
+    String firstName,
+    String lastName,
+    Double rating,
+    Integer totalTrips
+) {
+    
+    public static PublicUserView from(User user) {
+        return new PublicUserView(user.getId(), user.getFirstName(), user.getLastName(),
+                                  user.getRating(), user.getTotalTrips());
+    }
+}
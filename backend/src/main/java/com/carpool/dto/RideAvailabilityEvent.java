@@ -0,0 +1,26 @@
+package com.carpool.dto;
+
+import com.carpool.entity.Ride;
+
+/**
+ * Ride Availability Event
+ *
+ * Seats and status of a ride as pushed to live subscribers
+ * (GET /rides/{id}/events and GET /rides/events).
+ */
+public record RideAvailabilityEvent(
+    Long rideId,
+    Ride.RideStatus status,
+    Integer availableSeats,
+    int[] segmentSeats
+) {
+
+    public static RideAvailabilityEvent of(Ride ride) {
+        return new RideAvailabilityEvent(ride.getId(), ride.getStatus(), ride.getAvailableSeats(),
+                                         ride.getSegmentSeats());
+    }
+
+    public static RideAvailabilityEvent of(RideSummary ride) {
+        return new RideAvailabilityEvent(ride.id(), ride.status(), ride.availableSeats(), ride.segmentSeats());
+    }
+}
@@ -0,0 +1,17 @@
+package com.carpool.dto;
+
+/**
+ * Ride Booking Stats
+ * 
+ * Projection of per-ride booking aggregates for the driver dashboard.
+ */
+public interface RideBookingStats {
+    
+    Long getRideId();
+    
+    Long getBookingsCount();
+    
+    Double getRevenue();
+    
+    Long getBookedSeats();
+}
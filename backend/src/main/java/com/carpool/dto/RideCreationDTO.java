@@ -1,11 +1,17 @@
 package com.carpool.dto;
 
+import com.fasterxml.jackson.annotation.JsonFormat;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Ride Creation DTO
@@ -20,6 +26,27 @@ public class RideCreationDTO {
     @NotBlank(message = "Destination is required")
     private String toLocation;
     
+    // Optional pickup and drop points; given as complete pairs
+    @DecimalMin(value = "-90.0", message = "Pickup latitude must be between -90 and 90")
+    @DecimalMax(value = "90.0", message = "Pickup latitude must be between -90 and 90")
+    private Double pickupLatitude;
+    
+    @DecimalMin(value = "-180.0", message = "Pickup longitude must be between -180 and 180")
+    @DecimalMax(value = "180.0", message = "Pickup longitude must be between -180 and 180")
+    private Double pickupLongitude;
+    
+    @DecimalMin(value = "-90.0", message = "Drop latitude must be between -90 and 90")
+    @DecimalMax(value = "90.0", message = "Drop latitude must be between -90 and 90")
+    private Double dropLatitude;
+    
+    @DecimalMin(value = "-180.0", message = "Drop longitude must be between -180 and 180")
+    @DecimalMax(value = "180.0", message = "Drop longitude must be between -180 and 180")
+    private Double dropLongitude;
+    
+    // Encoded polyline of the route the driver takes
+    @Size(max = 100000, message = "Route polyline is too long")
+    private String routePolyline;
+    
     @NotNull(message = "Departure date is required")
     private LocalDate departureDate;
     
@@ -38,7 +65,10 @@ public class RideCreationDTO {
     @NotBlank(message = "Car number is required")
     private String carNumber;
     
-    private String stops;
+    // Intermediate stops in route order; older clients send one comma separated string
+    @JsonFormat(with = JsonFormat.Feature.ACCEPT_SINGLE_VALUE_AS_ARRAY)
+    @Size(max = 8, message = "A ride can have at most 8 stops")
+    private List<String> stops;
     private String additionalInfo;
     private Boolean instantBooking = true;
     private Boolean allowSmoking = false;
@@ -65,6 +95,38 @@ public class RideCreationDTO {
         this.toLocation = toLocation;
     }
     
+    public Double getPickupLatitude() {
+        return pickupLatitude;
+    }
+    
+    public void setPickupLatitude(Double pickupLatitude) {
+        this.pickupLatitude = pickupLatitude;
+    }
+    
+    public Double getPickupLongitude() {
+        return pickupLongitude;
+    }
+    
+    public void setPickupLongitude(Double pickupLongitude) {
+        this.pickupLongitude = pickupLongitude;
+    }
+    
+    public Double getDropLatitude() {
+        return dropLatitude;
+    }
+    
+    public void setDropLatitude(Double dropLatitude) {
+        this.dropLatitude = dropLatitude;
+    }
+    
+    public Double getDropLongitude() {
+        return dropLongitude;
+    }
+    
+    public void setDropLongitude(Double dropLongitude) {
+        this.dropLongitude = dropLongitude;
+    }
+    
     public LocalDate getDepartureDate() {
         return departureDate;
     }
@@ -113,12 +175,31 @@ public class RideCreationDTO {
         this.carNumber = carNumber;
     }
     
-    public String getStops() {
+    public String getRoutePolyline() {
+        return routePolyline;
+    }
+    
+    public void setRoutePolyline(String routePolyline) {
+        this.routePolyline = routePolyline;
+    }
+    
+    public List<String> getStops() {
         return stops;
     }
     
-    public void setStops(String stops) {
-        this.stops = stops;
+    public void setStops(List<String> stops) {
+        if (stops == null) {
+            this.stops = null;
+            return;
+        }
+        this.stops = new ArrayList<>();
+        for (String stop : stops) {
+            if (stop == null) {
+                this.stops.add(null);
+            } else {
+                this.stops.addAll(List.of(stop.split(",")));
+            }
+        }
     }
     
     public String getAdditionalInfo() {
@@ -0,0 +1,74 @@
+package com.carpool.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Ride Cursor
+ * 
+ * Keyset position in the (departureDate, departureTime, id) ride ordering.
+ * Sent to clients as an opaque URL-safe token.
+ */
+public class RideCursor {
+    
+    private final LocalDate departureDate;
+    private final LocalTime departureTime;
+    private final Long id;
+    
+    public RideCursor(LocalDate departureDate, LocalTime departureTime, Long id) {
+        this.departureDate = departureDate;
+        this.departureTime = departureTime;
+        this.id = id;
+    }
+    
+    /**
+     * Cursor pointing just after the given ride
+     */
+    public static RideCursor after(RideSummary ride) {
+        return new RideCursor(ride.departureDate(), ride.departureTime(), ride.id());
+    }
+    
+    /**
+     * Encode the cursor as an opaque token
+     */
+    public String encode() {
+        String raw = departureDate + "|" + departureTime + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * Decode a token produced by {@link #encode()}; returns null for a missing token
+     */
+    public static RideCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|");
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new RideCursor(LocalDate.parse(parts[0]), LocalTime.parse(parts[1]), Long.valueOf(parts[2]));
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+    
+    // Getters
+    public LocalDate getDepartureDate() {
+        return departureDate;
+    }
+    
+    public LocalTime getDepartureTime() {
+        return departureTime;
+    }
+    
+    public Long getId() {
+        return id;
+    }
+}
@@ -0,0 +1,41 @@
+package com.carpool.dto;
+
+import java.util.List;
+
+/**
+ * Ride Page
+ * 
+ * One keyset page of rides plus the cursor of the next page
+ * (null when this is the last page).
+ */
+public class RidePage {
+    
+    private final List<RideSummary> rides;
+    private final String nextCursor;
+    
+    public RidePage(List<RideSummary> rides, String nextCursor) {
+        this.rides = rides;
+        this.nextCursor = nextCursor;
+    }
+    
+    /**
+     * Build a page from a result fetched with one extra row to detect whether more rides follow
+     */
+    public static RidePage of(List<RideSummary> rides, int pageSize) {
+        if (rides.size() <= pageSize) {
+            return new RidePage(rides, null);
+        }
+        
+        List<RideSummary> page = rides.subList(0, pageSize);
+        return new RidePage(page, RideCursor.after(page.get(pageSize - 1)).encode());
+    }
+    
+    // Getters
+    public List<RideSummary> getRides() {
+        return rides;
+    }
+    
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
@@ -0,0 +1,30 @@
+package com.carpool.dto;
+
+import com.carpool.entity.Ride;
+
+/**
+ * Ride Seat Inventory
+ * 
+ * The seats of a ride as last committed, with the version they belong to.
+ * Read with a JPQL constructor expression, so it always comes from the
+ * database rather than the persistence context or the second-level cache.
+ */
+public record RideSeatInventory(
+    Long version,
+    Ride.RideStatus status,
+    Integer availableSeats,
+    int[] segmentSeats
+) {
+    
+    public static RideSeatInventory of(Ride ride) {
+        return new RideSeatInventory(ride.getVersion(), ride.getStatus(), ride.getAvailableSeats(),
+                                     ride.getSegmentSeats());
+    }
+    
+    /**
+     * Seats left on each segment; rides without a segment inventory have a single segment
+     */
+    public int[] seats() {
+        return segmentSeats != null ? segmentSeats.clone() : new int[] {availableSeats};
+    }
+}
@@ -0,0 +1,87 @@
+package com.carpool.dto;
+
+import com.carpool.entity.Ride;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Ride Summary
+ * 
+ * Read model of a ride as returned by the API. Filled straight from a JPQL
+ * constructor expression, so serializing it never touches a Hibernate proxy.
+ * The booking statistics are only set for the driver dashboard. The ride's
+ * version is kept (but not serialized) to tell cached summaries apart by age.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record RideSummary(
+    Long id,
+    String fromLocation,
+    String toLocation,
+    Double pickupLatitude,
+    Double pickupLongitude,
+    Double dropLatitude,
+    Double dropLongitude,
+    LocalDate departureDate,
+    LocalTime departureTime,
+    Integer availableSeats,
+    int[] segmentSeats,
+    Double pricePerSeat,
+    String carModel,
+    String carNumber,
+    String stops,
+    String additionalInfo,
+    Boolean instantBooking,
+    Boolean allowSmoking,
+    Boolean allowPets,
+    Boolean allowFood,
+    Ride.RideStatus status,
+    @JsonIgnore Long version,
+    PublicUserView driver,
+    Integer bookingsCount,
+    Double revenue,
+    Integer totalSeats
+) {
+    
+    /**
+     * Flat constructor used by JPQL constructor expressions
+     */
+    public RideSummary(Long id, String fromLocation, String toLocation,
+                       Double pickupLatitude, Double pickupLongitude, Double dropLatitude, Double dropLongitude,
+                       LocalDate departureDate, LocalTime departureTime, Integer availableSeats,
+                       int[] segmentSeats, Double pricePerSeat, String carModel, String carNumber,
+                       String stops, String additionalInfo, Boolean instantBooking, Boolean allowSmoking, Boolean allowPets, Boolean allowFood,
+                       Ride.RideStatus status, Long version, Long driverId, String driverFirstName, String driverLastName,
+                       Double driverRating, Integer driverTotalTrips) {
+        this(id, fromLocation, toLocation, pickupLatitude, pickupLongitude, dropLatitude, dropLongitude,
+             departureDate, departureTime, availableSeats, segmentSeats, pricePerSeat, carModel, carNumber,
+             stops, additionalInfo, instantBooking, allowSmoking, allowPets, allowFood,
+             status, version, new PublicUserView(driverId, driverFirstName, driverLastName, driverRating, driverTotalTrips),
+             null, null, null);
+    }
+    
+    public static RideSummary from(Ride ride) {
+        return new RideSummary(ride.getId(), ride.getFromLocation(), ride.getToLocation(),
+                               ride.getPickupLatitude(), ride.getPickupLongitude(),
+                               ride.getDropLatitude(), ride.getDropLongitude(),
+                               ride.getDepartureDate(), ride.getDepartureTime(), ride.getAvailableSeats(),
+                               ride.getSegmentSeats(), ride.getPricePerSeat(), ride.getCarModel(),
+                               ride.getCarNumber(), ride.getStops(), ride.getAdditionalInfo(),
+                               ride.getInstantBooking(), ride.getAllowSmoking(), ride.getAllowPets(),
+                               ride.getAllowFood(), ride.getStatus(), ride.getVersion(),
+                               PublicUserView.from(ride.getDriver()), null, null, null);
+    }
+    
+    /**
+     * Copy of this summary carrying the driver dashboard statistics
+     */
+    public RideSummary withStats(int bookingsCount, double revenue, int totalSeats) {
+        return new RideSummary(id, fromLocation, toLocation, pickupLatitude, pickupLongitude,
+                               dropLatitude, dropLongitude, departureDate, departureTime, availableSeats,
+                               segmentSeats, pricePerSeat, carModel, carNumber, stops, additionalInfo,
+                               instantBooking, allowSmoking, allowPets, allowFood, status, version, driver,
+                               bookingsCount, revenue, totalSeats);
+    }
+}
@@ -12,15 +12,33 @@ import java.time.LocalDateTime;
  * Links passengers to rides and tracks booking status.
  */
 @Entity
-@Table(name = "bookings")
+@Table(name = "bookings", indexes = {
+    @Index(name = "idx_bookings_ride_status", columnList = "ride_id, status"),
+    @Index(name = "idx_bookings_passenger_created", columnList = "passenger_id, created_at")
+})
+@NamedEntityGraph(name = Booking.WITH_PARTICIPANTS,
+    attributeNodes = {
+        @NamedAttributeNode("passenger"),
+        @NamedAttributeNode(value = "ride", subgraph = "ride")
+    },
+    subgraphs = @NamedSubgraph(name = "ride", attributeNodes = @NamedAttributeNode("driver")))
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Booking {
     
+    /**
+     * Entity graph loading the passenger, the ride and the ride's driver with the booking
+     */
+    public static final String WITH_PARTICIPANTS = "Booking.withParticipants";
+    
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     
-    @ManyToOne(fetch = FetchType.EAGER)
+    @Version
+    @Column(name = "version", columnDefinition = "bigint default 0")
+    private Long version;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "passenger_id", nullable = false)
     private User passenger;
     
@@ -31,6 +49,13 @@ public class Booking {
     @Column(name = "seats_booked", nullable = false)
     private Integer seatsBooked;
     
+    // Stop positions on the ride (0 = from location); null on bookings made before stops were bookable
+    @Column(name = "pickup_stop")
+    private Integer pickupStop;
+    
+    @Column(name = "drop_stop")
+    private Integer dropStop;
+    
     @Column(name = "total_amount", nullable = false)
     private Double totalAmount;
     
@@ -74,6 +99,14 @@ public class Booking {
         this.id = id;
     }
     
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+    
     public User getPassenger() {
         return passenger;
     }
@@ -98,6 +131,22 @@ public class Booking {
         this.seatsBooked = seatsBooked;
     }
     
+    public Integer getPickupStop() {
+        return pickupStop;
+    }
+    
+    public void setPickupStop(Integer pickupStop) {
+        this.pickupStop = pickupStop;
+    }
+    
+    public Integer getDropStop() {
+        return dropStop;
+    }
+    
+    public void setDropStop(Integer dropStop) {
+        this.dropStop = dropStop;
+    }
+    
     public Double getTotalAmount() {
         return totalAmount;
     }
@@ -0,0 +1,95 @@
+package com.carpool.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Rating Entity
+ * 
+ * One rating given by a rider or driver to another participant of a trip.
+ * Each rater can rate a given user once per ride. The ratee's aggregates
+ * (rating_sum, rating_count) are incremented from these rows by RatingService.
+ */
+@Entity
+@Table(name = "ratings",
+    uniqueConstraints = @UniqueConstraint(name = "uk_ratings_trip", columnNames = {"ride_id", "rater_id", "ratee_id"}),
+    indexes = @Index(name = "idx_ratings_ratee", columnList = "ratee_id"))
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
+public class Rating {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "ride_id", nullable = false)
+    private Ride ride;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "rater_id", nullable = false)
+    private User rater;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "ratee_id", nullable = false)
+    private User ratee;
+    
+    @Column(name = "score", nullable = false)
+    private Double score;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+    
+    // Constructors
+    public Rating() {}
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public Ride getRide() {
+        return ride;
+    }
+    
+    public void setRide(Ride ride) {
+        this.ride = ride;
+    }
+    
+    public User getRater() {
+        return rater;
+    }
+    
+    public void setRater(User rater) {
+        this.rater = rater;
+    }
+    
+    public User getRatee() {
+        return ratee;
+    }
+    
+    public void setRatee(User ratee) {
+        this.ratee = ratee;
+    }
+    
+    public Double getScore() {
+        return score;
+    }
+    
+    public void setScore(Double score) {
+        this.score = score;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
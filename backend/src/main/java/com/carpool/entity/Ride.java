@@ -1,14 +1,21 @@
 package com.carpool.entity;
 
+import com.carpool.util.SegmentTree;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Ride Entity
@@ -17,13 +24,22 @@ import java.time.LocalTime;
  * Contains all the details about the ride including route, timing, and preferences.
  */
 @Entity
-@Table(name = "rides")
+@Table(name = "rides", indexes = {
+    @Index(name = "idx_rides_status_departure", columnList = "status, departure_date, departure_time, id"),
+    @Index(name = "idx_rides_driver_departure", columnList = "driver_id, departure_date, departure_time")
+})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Ride {
     
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     
+    @Version
+    @Column(name = "version", columnDefinition = "bigint default 0")
+    private Long version;
+    
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "driver_id", nullable = false)
     @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
@@ -37,6 +53,23 @@ public class Ride {
     @Column(name = "to_location", nullable = false)
     private String toLocation;
     
+    // Pickup and drop points for the nearby search (optional)
+    @Column(name = "pickup_lat")
+    private Double pickupLatitude;
+    
+    @Column(name = "pickup_lng")
+    private Double pickupLongitude;
+    
+    @Column(name = "drop_lat")
+    private Double dropLatitude;
+    
+    @Column(name = "drop_lng")
+    private Double dropLongitude;
+    
+    // Simplified route as an encoded polyline, for the corridor search (optional)
+    @Column(name = "route_polyline", columnDefinition = "TEXT")
+    private String routePolyline;
+    
     @NotNull(message = "Departure date is required")
     @Column(name = "departure_date", nullable = false)
     private LocalDate departureDate;
@@ -45,10 +78,15 @@ public class Ride {
     @Column(name = "departure_time", nullable = false)
     private LocalTime departureTime;
     
-    @Positive(message = "Available seats must be positive")
+    @PositiveOrZero(message = "Available seats cannot be negative")
     @Column(name = "available_seats", nullable = false)
     private Integer availableSeats;
     
+    // Seats left on each segment between consecutive stops; null for rides created without segments
+    @Convert(converter = SegmentSeatsConverter.class)
+    @Column(name = "segment_seats", columnDefinition = "VARBINARY(255)")
+    private int[] segmentSeats;
+    
     @Positive(message = "Price per seat must be positive")
     @Column(name = "price_per_seat", nullable = false)
     private Double pricePerSeat;
@@ -62,7 +100,7 @@ public class Ride {
     private String carNumber;
     
     @Column(name = "stops", columnDefinition = "TEXT")
-    private String stops; // JSON string of stops
+    private String stops; // Stop locations in route order, comma separated
     
     @Column(name = "additional_info", columnDefinition = "TEXT")
     private String additionalInfo;
@@ -89,16 +127,6 @@ public class Ride {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
     
-    // Transient fields for calculated values (not stored in database)
-    @Transient
-    private Integer bookingsCount = 0;
-    
-    @Transient
-    private Double revenue = 0.0;
-    
-    @Transient
-    private Integer totalSeats;
-    
     // Enum for ride status
     public enum RideStatus {
         ACTIVE, COMPLETED, CANCELLED
@@ -132,6 +160,14 @@ public class Ride {
         this.id = id;
     }
     
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+    
     public User getDriver() {
         return driver;
     }
@@ -156,6 +192,54 @@ public class Ride {
         this.toLocation = toLocation;
     }
     
+    public Double getPickupLatitude() {
+        return pickupLatitude;
+    }
+    
+    public void setPickupLatitude(Double pickupLatitude) {
+        this.pickupLatitude = pickupLatitude;
+    }
+    
+    public Double getPickupLongitude() {
+        return pickupLongitude;
+    }
+    
+    public void setPickupLongitude(Double pickupLongitude) {
+        this.pickupLongitude = pickupLongitude;
+    }
+    
+    public Double getDropLatitude() {
+        return dropLatitude;
+    }
+    
+    public void setDropLatitude(Double dropLatitude) {
+        this.dropLatitude = dropLatitude;
+    }
+    
+    public Double getDropLongitude() {
+        return dropLongitude;
+    }
+    
+    public void setDropLongitude(Double dropLongitude) {
+        this.dropLongitude = dropLongitude;
+    }
+    
+    public String getRoutePolyline() {
+        return routePolyline;
+    }
+    
+    public void setRoutePolyline(String routePolyline) {
+        this.routePolyline = routePolyline;
+    }
+    
+    /**
+     * Whether both the pickup and the drop point are known
+     */
+    public boolean hasCoordinates() {
+        return pickupLatitude != null && pickupLongitude != null
+            && dropLatitude != null && dropLongitude != null;
+    }
+    
     public LocalDate getDepartureDate() {
         return departureDate;
     }
@@ -212,6 +296,51 @@ public class Ride {
         this.stops = stops;
     }
     
+    /**
+     * Seats left on each segment of the route. Rides without a segment inventory
+     * have a single segment holding their available seats.
+     */
+    public int[] getSegmentSeats() {
+        return segmentSeats != null ? segmentSeats.clone() : new int[] {availableSeats};
+    }
+    
+    /**
+     * Set the seats left on each segment; the available seats become those left on the whole route
+     */
+    public void setSegmentSeats(int[] segmentSeats) {
+        this.segmentSeats = segmentSeats.clone();
+        int min = Integer.MAX_VALUE;
+        for (int seats : segmentSeats) {
+            min = Math.min(min, seats);
+        }
+        this.availableSeats = min;
+    }
+    
+    /**
+     * The seat inventory as a segment tree, for range checks and updates by stop position
+     */
+    public SegmentTree seatInventory() {
+        return new SegmentTree(getSegmentSeats());
+    }
+    
+    /**
+     * Locations along the route by stop position: the from location, the
+     * intermediate stops and the to location, as listed in the stops column.
+     */
+    @JsonIgnore
+    public List<String> getRouteLocations() {
+        List<String> locations = new ArrayList<>();
+        locations.add(fromLocation);
+        if (segmentSeats != null && segmentSeats.length > 1 && stops != null) {
+            for (String stop : stops.split(",")) {
+                locations.add(stop.trim());
+            }
+        }
+        locations.add(toLocation);
+        // Stops saved before the segment inventory existed are free text; fall back to the endpoints
+        return locations.size() == getSegmentSeats().length + 1 ? locations : List.of(fromLocation, toLocation);
+    }
+    
     public String getAdditionalInfo() {
         return additionalInfo;
     }
@@ -276,30 +405,6 @@ public class Ride {
         this.updatedAt = updatedAt;
     }
     
-    public Integer getBookingsCount() {
-        return bookingsCount;
-    }
-    
-    public void setBookingsCount(Integer bookingsCount) {
-        this.bookingsCount = bookingsCount;
-    }
-    
-    public Double getRevenue() {
-        return revenue;
-    }
-    
-    public void setRevenue(Double revenue) {
-        this.revenue = revenue;
-    }
-    
-    public Integer getTotalSeats() {
-        return totalSeats;
-    }
-    
-    public void setTotalSeats(Integer totalSeats) {
-        this.totalSeats = totalSeats;
-    }
-    
     // Lifecycle methods
     @PrePersist
     protected void onCreate() {
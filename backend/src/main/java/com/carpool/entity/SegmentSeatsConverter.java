@@ -0,0 +1,36 @@
+package com.carpool.entity;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Segment Seats Converter
+ *
+ * Stores a ride's per-segment seat counts as a compact binary column,
+ * four big-endian bytes per segment.
+ */
+@Converter
+public class SegmentSeatsConverter implements AttributeConverter<int[], byte[]> {
+
+    @Override
+    public byte[] convertToDatabaseColumn(int[] seats) {
+        if (seats == null) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(seats.length * Integer.BYTES);
+        buffer.asIntBuffer().put(seats);
+        return buffer.array();
+    }
+
+    @Override
+    public int[] convertToEntityAttribute(byte[] column) {
+        if (column == null) {
+            return null;
+        }
+        int[] seats = new int[column.length / Integer.BYTES];
+        ByteBuffer.wrap(column).asIntBuffer().get(seats);
+        return seats;
+    }
+}
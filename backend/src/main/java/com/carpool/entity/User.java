@@ -1,10 +1,13 @@
 package com.carpool.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDateTime;
 
@@ -15,10 +18,19 @@ import java.time.LocalDateTime;
  * Users can be both drivers (offering rides) and passengers (finding rides).
  */
 @Entity
-@Table(name = "users")
+@Table(name = "users", uniqueConstraints = {
+    @UniqueConstraint(name = User.EMAIL_CONSTRAINT, columnNames = "email"),
+    @UniqueConstraint(name = User.PHONE_CONSTRAINT, columnNames = "phone")
+})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class User {
     
+    public static final String EMAIL_CONSTRAINT = "uk_users_email";
+    
+    public static final String PHONE_CONSTRAINT = "uk_users_phone";
+    
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -33,7 +45,7 @@ public class User {
     
     @Email(message = "Please provide a valid email")
     @NotBlank(message = "Email is required")
-    @Column(name = "email", unique = true, nullable = false)
+    @Column(name = "email", nullable = false)
     private String email;
     
     @NotBlank(message = "Phone number is required")
@@ -43,6 +55,7 @@ public class User {
     @NotBlank(message = "Password is required")
     @Size(min = 6, message = "Password must be at least 6 characters")
     @Column(name = "password", nullable = false)
+    @JsonIgnore
     private String password;
     
     @Column(name = "is_active")
@@ -54,10 +67,19 @@ public class User {
     @Column(name = "phone_verified")
     private Boolean phoneVerified = false;
     
-    @Column(name = "rating")
+    // Rating columns are maintained with atomic SQL increments by RatingService, never by entity updates
+    @Column(name = "rating", updatable = false)
     private Double rating = 0.0;
     
-    @Column(name = "total_trips")
+    @Column(name = "rating_sum", nullable = false, updatable = false, columnDefinition = "double default 0")
+    @JsonIgnore
+    private Double ratingSum = 0.0;
+    
+    @Column(name = "rating_count", nullable = false, updatable = false, columnDefinition = "int default 0")
+    @JsonIgnore
+    private Integer ratingCount = 0;
+    
+    @Column(name = "total_trips", updatable = false)
     private Integer totalTrips = 0;
     
     @Column(name = "created_at")
@@ -137,6 +159,22 @@ public class User {
         this.rating = rating;
     }
     
+    public Double getRatingSum() {
+        return ratingSum;
+    }
+    
+    public void setRatingSum(Double ratingSum) {
+        this.ratingSum = ratingSum;
+    }
+    
+    public Integer getRatingCount() {
+        return ratingCount;
+    }
+    
+    public void setRatingCount(Integer ratingCount) {
+        this.ratingCount = ratingCount;
+    }
+    
     public Integer getTotalTrips() {
         return totalTrips;
     }
@@ -0,0 +1,14 @@
+package com.carpool.exception;
+
+/**
+ * Service Unavailable Exception
+ * 
+ * Thrown when admission control turns a request away because every database
+ * connection is in use; the request should be retried shortly.
+ */
+public class ServiceUnavailableException extends RuntimeException {
+    
+    public ServiceUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,17 @@
+package com.carpool.exception;
+
+/**
+ * Too Many Requests Exception
+ * 
+ * Thrown when the server is saturated and the request should be retried later.
+ */
+public class TooManyRequestsException extends RuntimeException {
+    
+    public TooManyRequestsException(String message) {
+        super(message);
+    }
+    
+    public TooManyRequestsException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -1,14 +1,19 @@
 package com.carpool.repository;
 
+import com.carpool.dto.BookingView;
+import com.carpool.dto.RideBookingStats;
 import com.carpool.entity.Booking;
 import com.carpool.entity.Ride;
 import com.carpool.entity.User;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Booking Repository
@@ -19,14 +24,37 @@ import java.util.List;
 @Repository
 public interface BookingRepository extends JpaRepository<Booking, Long> {
     
+    /**
+     * Select clause building a {@link BookingView} from a booking (b), its ride (r),
+     * the ride's driver (d) and the passenger (p)
+     */
+    String BOOKING_VIEW = "SELECT new com.carpool.dto.BookingView(b.id, b.seatsBooked, b.pickupStop, b.dropStop, " +
+                          "b.totalAmount, b.status, b.bookingMessage, b.createdAt, " +
+                          "r.id, r.fromLocation, r.toLocation, " +
+                          "r.pickupLatitude, r.pickupLongitude, r.dropLatitude, r.dropLongitude, " +
+                          "r.departureDate, r.departureTime, " +
+                          "r.availableSeats, r.segmentSeats, r.pricePerSeat, r.carModel, r.carNumber, r.stops, " +
+                          "r.additionalInfo, r.instantBooking, r.allowSmoking, r.allowPets, r.allowFood, " +
+                          "r.status, r.version, d.id, d.firstName, d.lastName, d.rating, d.totalTrips, d.phone, d.email, " +
+                          "p.id, p.firstName, p.lastName, p.rating, p.totalTrips) " +
+                          "FROM Booking b JOIN b.ride r JOIN r.driver d JOIN b.passenger p ";
+    
+    /**
+     * Find a booking with its passenger, ride and driver in one query
+     */
+    @EntityGraph(Booking.WITH_PARTICIPANTS)
+    Optional<Booking> findWithParticipantsById(Long id);
+    
     /**
      * Find bookings by passenger
      */
+    @EntityGraph(Booking.WITH_PARTICIPANTS)
     List<Booking> findByPassenger(User passenger);
     
     /**
      * Find bookings by ride
      */
+    @EntityGraph(Booking.WITH_PARTICIPANTS)
     List<Booking> findByRide(Ride ride);
     
     /**
@@ -38,15 +66,61 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
     /**
      * Find bookings by passenger and status
      */
+    @EntityGraph(Booking.WITH_PARTICIPANTS)
     List<Booking> findByPassengerAndStatus(User passenger, Booking.BookingStatus status);
     
     /**
      * Find bookings by ride and status
      */
+    @EntityGraph(Booking.WITH_PARTICIPANTS)
     List<Booking> findByRideAndStatus(Ride ride, Booking.BookingStatus status);
     
     /**
      * Find bookings by ride driver (for drivers to see their ride bookings)
      */
+    @EntityGraph(Booking.WITH_PARTICIPANTS)
     List<Booking> findByRideDriver(User driver);
+    
+    /**
+     * Check if a passenger has a booking on a ride in one of the given states
+     */
+    boolean existsByRideIdAndPassengerIdAndStatusIn(Long rideId, Long passengerId,
+                                                    Collection<Booking.BookingStatus> statuses);
+    
+    /**
+     * Find a booking view by ID
+     */
+    @Query(BOOKING_VIEW + "WHERE b.id = :id")
+    Optional<BookingView> findViewById(@Param("id") Long id);
+    
+    /**
+     * Find views of a passenger's bookings, newest first
+     */
+    @Query(BOOKING_VIEW + "WHERE p.id = :passengerId ORDER BY b.createdAt DESC")
+    List<BookingView> findViewsByPassengerId(@Param("passengerId") Long passengerId);
+    
+    /**
+     * Find views of the bookings on a driver's rides, newest first
+     */
+    @Query(BOOKING_VIEW + "WHERE d.id = :driverId ORDER BY b.createdAt DESC")
+    List<BookingView> findViewsByDriverId(@Param("driverId") Long driverId);
+    
+    /**
+     * Find views of the bookings on a ride, in booking order
+     */
+    @Query(BOOKING_VIEW + "WHERE r.id = :rideId ORDER BY b.createdAt")
+    List<BookingView> findViewsByRideId(@Param("rideId") Long rideId);
+    
+    /**
+     * Per-ride booking count, confirmed revenue and booked seats for all rides
+     * of a driver, aggregated in one grouped query
+     */
+    @Query("SELECT b.ride.id AS rideId, " +
+           "COUNT(b) AS bookingsCount, " +
+           "COALESCE(SUM(CASE WHEN b.status IN ('CONFIRMED', 'COMPLETED') THEN b.totalAmount ELSE 0.0 END), 0.0) AS revenue, " +
+           "COALESCE(SUM(CASE WHEN b.status IN ('CONFIRMED', 'COMPLETED') THEN b.seatsBooked ELSE 0 END), 0) AS bookedSeats " +
+           "FROM Booking b " +
+           "WHERE b.ride.driver.id = :driverId " +
+           "GROUP BY b.ride.id")
+    List<RideBookingStats> findBookingStatsByDriver(@Param("driverId") Long driverId);
 }
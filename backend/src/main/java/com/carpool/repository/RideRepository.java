@@ -1,14 +1,25 @@
 package com.carpool.repository;
 
+import com.carpool.dto.RideSeatInventory;
+import com.carpool.dto.RideSummary;
 import com.carpool.entity.Ride;
 import com.carpool.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Ride Repository
@@ -19,6 +30,11 @@ import java.util.List;
 @Repository
 public interface RideRepository extends JpaRepository<Ride, Long> {
     
+    /**
+     * Rows per round trip for streamed queries (needs useCursorFetch=true on MySQL)
+     */
+    String STREAM_FETCH_SIZE = "1000";
+    
     /**
      * Find rides by driver
      */
@@ -30,26 +46,96 @@ public interface RideRepository extends JpaRepository<Ride, Long> {
     List<Ride> findByStatus(Ride.RideStatus status);
     
     /**
-     * Find active rides by route and date
+     * Read the committed seat inventory of a ride
+     */
+    @Query("SELECT new com.carpool.dto.RideSeatInventory(r.version, r.status, r.availableSeats, r.segmentSeats) " +
+           "FROM Ride r WHERE r.id = :id")
+    Optional<RideSeatInventory> findSeatInventory(@Param("id") Long id);
+    
+    /**
+     * Write a ride's seat inventory in a single UPDATE, only if the ride is still
+     * at the version it was computed from. Returns 0 when another change
+     * committed first (or the ride is gone).
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Ride r SET r.segmentSeats = :segmentSeats, r.availableSeats = :availableSeats, " +
+           "r.version = r.version + 1, r.updatedAt = LOCAL DATETIME " +
+           "WHERE r.id = :id AND r.version = :version")
+    int updateSeats(@Param("id") Long id, @Param("version") Long version,
+                    @Param("segmentSeats") int[] segmentSeats, @Param("availableSeats") int availableSeats);
+    
+    /**
+     * Select clause building a {@link RideSummary} from a ride (r) and its driver (d)
+     */
+    String RIDE_SUMMARY = "SELECT new com.carpool.dto.RideSummary(r.id, r.fromLocation, r.toLocation, " +
+                          "r.pickupLatitude, r.pickupLongitude, r.dropLatitude, r.dropLongitude, " +
+                          "r.departureDate, r.departureTime, r.availableSeats, r.segmentSeats, r.pricePerSeat, " +
+                          "r.carModel, r.carNumber, r.stops, r.additionalInfo, r.instantBooking, " +
+                          "r.allowSmoking, r.allowPets, r.allowFood, r.status, r.version, " +
+                          "d.id, d.firstName, d.lastName, d.rating, d.totalTrips) " +
+                          "FROM Ride r JOIN r.driver d ";
+    
+    /**
+     * Find a ride summary by ID
+     */
+    @Query(RIDE_SUMMARY + "WHERE r.id = :id")
+    Optional<RideSummary> findSummaryById(@Param("id") Long id);
+    
+    /**
+     * Find ride summaries by IDs (in no particular order)
+     */
+    @Query(RIDE_SUMMARY + "WHERE r.id IN :ids")
+    List<RideSummary> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+    
+    /**
+     * Find summaries of all rides of a driver
+     */
+    @Query(RIDE_SUMMARY + "WHERE d.id = :driverId " +
+           "ORDER BY r.departureDate DESC, r.departureTime DESC")
+    List<RideSummary> findSummariesByDriverId(@Param("driverId") Long driverId);
+    
+    /**
+     * First keyset page of active rides with free seats
      */
-    @Query("SELECT r FROM Ride r WHERE r.fromLocation LIKE %:from% " +
-           "AND r.toLocation LIKE %:to% " +
-           "AND r.departureDate = :date " +
-           "AND r.status = 'ACTIVE' " +
+    @Query(RIDE_SUMMARY + "WHERE r.status = 'ACTIVE' " +
            "AND r.availableSeats > 0 " +
-           "ORDER BY r.departureTime")
-    List<Ride> findAvailableRides(@Param("from") String from, 
-                                  @Param("to") String to, 
-                                  @Param("date") LocalDate date);
+           "AND r.departureDate >= CURRENT_DATE " +
+           "ORDER BY r.departureDate, r.departureTime, r.id")
+    List<RideSummary> findActiveRidesPage(Pageable page);
     
     /**
-     * Find all active rides
+     * Next keyset page of active rides with free seats, after the given
+     * (departureDate, departureTime, id) position
      */
-    @Query("SELECT r FROM Ride r WHERE r.status = 'ACTIVE' " +
+    @Query(RIDE_SUMMARY + "WHERE r.status = 'ACTIVE' " +
+           "AND r.availableSeats > 0 " +
+           "AND r.departureDate >= CURRENT_DATE " +
+           "AND (r.departureDate > :date " +
+           "OR (r.departureDate = :date AND r.departureTime > :time) " +
+           "OR (r.departureDate = :date AND r.departureTime = :time AND r.id > :id)) " +
+           "ORDER BY r.departureDate, r.departureTime, r.id")
+    List<RideSummary> findActiveRidesPageAfter(@Param("date") LocalDate date,
+                                               @Param("time") LocalTime time,
+                                               @Param("id") Long id,
+                                               Pageable page);
+    
+    /**
+     * Stream all active rides with free seats straight from a JDBC cursor
+     */
+    @Query(RIDE_SUMMARY + "WHERE r.status = 'ACTIVE' " +
            "AND r.availableSeats > 0 " +
            "AND r.departureDate >= CURRENT_DATE " +
-           "ORDER BY r.departureDate, r.departureTime")
-    List<Ride> findAllActiveRides();
+           "ORDER BY r.departureDate, r.departureTime, r.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    Stream<RideSummary> streamActiveRides();
+    
+    /**
+     * Stream upcoming active rides (used to build the in-memory search index)
+     */
+    @Query("SELECT r FROM Ride r WHERE r.status = 'ACTIVE' " +
+           "AND r.departureDate >= CURRENT_DATE")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    Stream<Ride> streamUpcomingActiveRides();
     
     /**
      * Find rides by driver and status
@@ -2,9 +2,14 @@ package com.carpool.repository;
 
 import com.carpool.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * User Repository
@@ -29,4 +34,28 @@ public interface UserRepository extends JpaRepository<User, Long> {
      * Check if user exists by phone number
      */
     boolean existsByPhone(String phone);
+    
+    /**
+     * Replace a password hash, only if it is still the one that was verified
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.password = :upgradedHash WHERE u.id = :id AND u.password = :currentHash")
+    int updatePasswordHash(@Param("id") Long id, @Param("currentHash") String currentHash,
+                           @Param("upgradedHash") String upgradedHash);
+    
+    /**
+     * Stream the email and phone of every user (for warming the registration filter)
+     */
+    @Query("SELECT u.email AS email, u.phone AS phone FROM User u")
+    Stream<ContactView> streamAllContacts();
+    
+    /**
+     * Email and phone of a user
+     */
+    interface ContactView {
+        String getEmail();
+        
+        String getPhone();
+    }
 }
@@ -0,0 +1,8 @@
+package com.carpool.security;
+
+/**
+ * Authenticated User
+ *
+ * The caller identity carried by a verified token; set as the principal of the request.
+ */
+public record AuthenticatedUser(Long id, String email) {}
@@ -0,0 +1,135 @@
+package com.carpool.security;
+
+import com.carpool.entity.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JWT Token Provider
+ *
+ * Issues and verifies the HS256 tokens handed out at login.
+ * The signing key and parser are built once at startup, and tokens that passed
+ * verification are kept in a bounded cache until they expire, so repeat calls
+ * with the same token skip the signature check.
+ */
+@Component
+public class JwtTokenProvider {
+
+    private static final String EMAIL_CLAIM = "email";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.jwt.secret}")
+    private String secret;
+
+    @Value("${app.jwt.expiration}")
+    private long expirationMs;
+
+    @Value("${app.jwt.cache.max-size:10000}")
+    private long cacheMaxSize;
+
+    private SecretKey signingKey;
+
+    private JwtParser parser;
+
+    private Cache<String, VerifiedToken> verifiedTokens;
+
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+        verifiedTokens = Caffeine.newBuilder()
+            .maximumSize(cacheMaxSize)
+            .expireAfter(new UntilTokenExpiry())
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokens, "jwtTokens");
+    }
+
+    /**
+     * Issue a token for the user
+     */
+    public String generateToken(User user) {
+        Date now = new Date();
+        return Jwts.builder()
+            .setSubject(String.valueOf(user.getId()))
+            .claim(EMAIL_CLAIM, user.getEmail())
+            .setIssuedAt(now)
+            .setExpiration(new Date(now.getTime() + expirationMs))
+            .signWith(signingKey, SignatureAlgorithm.HS256)
+            .compact();
+    }
+
+    /**
+     * Token lifetime in milliseconds
+     */
+    public long getExpirationMs() {
+        return expirationMs;
+    }
+
+    /**
+     * Verify a token and return the user it was issued to
+     *
+     * @throws JwtException if the token is malformed, tampered with or expired
+     */
+    public AuthenticatedUser verify(String token) {
+        VerifiedToken cached = verifiedTokens.getIfPresent(token);
+        if (cached != null) {
+            return cached.user();
+        }
+
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        AuthenticatedUser user;
+        try {
+            user = new AuthenticatedUser(Long.valueOf(claims.getSubject()), claims.get(EMAIL_CLAIM, String.class));
+        } catch (NumberFormatException e) {
+            throw new JwtException("Invalid token subject");
+        }
+
+        verifiedTokens.put(token, new VerifiedToken(user, claims.getExpiration().getTime()));
+        return user;
+    }
+
+    private record VerifiedToken(AuthenticatedUser user, long expiresAtMillis) {}
+
+    /**
+     * Keeps a verified token cached only until the token itself expires
+     */
+    private static class UntilTokenExpiry implements Expiry<String, VerifiedToken> {
+
+        @Override
+        public long expireAfterCreate(String token, VerifiedToken verified, long currentTime) {
+            long remainingMs = verified.expiresAtMillis() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMs, 0));
+        }
+
+        @Override
+        public long expireAfterUpdate(String token, VerifiedToken verified, long currentTime, long currentDuration) {
+            return expireAfterCreate(token, verified, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String token, VerifiedToken verified, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
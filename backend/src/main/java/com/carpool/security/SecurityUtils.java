@@ -0,0 +1,40 @@
+package com.carpool.security;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+/**
+ * Security Utilities
+ *
+ * Access to the caller identity established by {@link JwtAuthenticationFilter}.
+ */
+public class SecurityUtils {
+
+    /**
+     * ID of the user the request's token was issued to, or null for anonymous requests
+     */
+    public static Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user) {
+            return user.id();
+        }
+        return null;
+    }
+
+    /**
+     * Resolve the user a request acts as: the token's user. A request without a
+     * token is refused, and so is one naming a different user ID.
+     */
+    public static Long resolveUserId(Long requestedId) {
+        Long currentUserId = currentUserId();
+
+        if (currentUserId == null) {
+            throw new RuntimeException("Authentication required");
+        }
+
+        if (requestedId != null && !requestedId.equals(currentUserId)) {
+            throw new RuntimeException("You can only act on behalf of the signed-in user");
+        }
+        return currentUserId;
+    }
+}
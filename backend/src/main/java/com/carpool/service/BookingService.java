@@ -1,12 +1,16 @@
 package com.carpool.service;
 
 import com.carpool.dto.BookingCreationDTO;
+import com.carpool.dto.BookingView;
 import com.carpool.entity.Booking;
 import com.carpool.entity.Ride;
 import com.carpool.entity.User;
 import com.carpool.repository.BookingRepository;
+import com.carpool.util.SegmentTree;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
@@ -28,15 +32,30 @@ public class BookingService {
     @Autowired
     private RideService rideService;
     
+    @Autowired
+    private OptimisticLockRetrier optimisticLockRetrier;
+    
     /**
-     * Create a new booking
+     * Create a new booking, for the whole route or between two of its stops.
+     * Seats are taken with a version-guarded UPDATE that is re-applied when a
+     * concurrent booking on the same ride committed first (see
+     * RideService.updateAvailableSeats), so nothing is locked while they are checked.
      */
+    @Transactional(isolation = Isolation.READ_COMMITTED)
     public Booking createBooking(BookingCreationDTO bookingDTO, Long passengerId) {
         User passenger = userService.findUserById(passengerId);
         Ride ride = rideService.getRideById(bookingDTO.getRideId());
         
-        // Check if enough seats are available
-        if (ride.getAvailableSeats() < bookingDTO.getSeatsBooked()) {
+        // Stop positions: 0 is the from location, the last one the to location
+        SegmentTree seats = ride.seatInventory();
+        int pickupStop = bookingDTO.getPickupStop() != null ? bookingDTO.getPickupStop() : 0;
+        int dropStop = bookingDTO.getDropStop() != null ? bookingDTO.getDropStop() : seats.size();
+        if (pickupStop >= dropStop || dropStop > seats.size()) {
+            throw new RuntimeException("Pickup stop must come before the drop stop, and the drop stop can be at most " + seats.size());
+        }
+        
+        // Check if enough seats are available on every segment of the trip
+        if (seats.min(pickupStop, dropStop) < bookingDTO.getSeatsBooked()) {
             throw new RuntimeException("Not enough seats available");
         }
         
@@ -51,12 +70,13 @@ public class BookingService {
             bookingDTO.getSeatsBooked(),
             bookingDTO.getBookingMessage()
         );
+        booking.setPickupStop(pickupStop);
+        booking.setDropStop(dropStop);
         
         // If instant booking is enabled, confirm immediately
         if (ride.getInstantBooking()) {
             booking.setStatus(Booking.BookingStatus.CONFIRMED);
-            // Update available seats
-            rideService.updateAvailableSeats(ride.getId(), bookingDTO.getSeatsBooked());
+            rideService.updateAvailableSeats(ride.getId(), bookingDTO.getSeatsBooked(), pickupStop, dropStop);
         }
         
         return bookingRepository.save(booking);
@@ -65,17 +85,19 @@ public class BookingService {
     /**
      * Get bookings by passenger
      */
-    public List<Booking> getBookingsByPassenger(Long passengerId) {
-        User passenger = userService.findUserById(passengerId);
-        return bookingRepository.findByPassenger(passenger);
+    @Transactional(readOnly = true)
+    public List<BookingView> getBookingsByPassenger(Long passengerId) {
+        userService.findUserById(passengerId);
+        return bookingRepository.findViewsByPassengerId(passengerId);
     }
     
     /**
      * Get bookings for driver (bookings on their rides)
      */
-    public List<Booking> getBookingsForDriver(Long driverId) {
-        User driver = userService.findUserById(driverId);
-        return bookingRepository.findByRideDriver(driver);
+    @Transactional(readOnly = true)
+    public List<BookingView> getBookingsForDriver(Long driverId) {
+        userService.findUserById(driverId);
+        return bookingRepository.findViewsByDriverId(driverId);
     }
     
     /**
@@ -87,68 +109,54 @@ public class BookingService {
     }
     
     /**
-     * Update booking status
+     * Get the read model of a booking by ID
      */
-    public Booking updateBookingStatus(Long bookingId, Booking.BookingStatus status, Long userId) {
-        Booking booking = getBookingById(bookingId);
-        
-        // Check if user has permission to update this booking
-        boolean isDriver = booking.getRide().getDriver().getId().equals(userId);
-        boolean isPassenger = booking.getPassenger().getId().equals(userId);
-        
-        if (!isDriver && !isPassenger) {
-            throw new RuntimeException("You don't have permission to update this booking");
-        }
-        
-        // Handle seat availability when confirming/rejecting
-        if (status == Booking.BookingStatus.CONFIRMED && booking.getStatus() == Booking.BookingStatus.PENDING) {
-            rideService.updateAvailableSeats(booking.getRide().getId(), booking.getSeatsBooked());
-        } else if (status == Booking.BookingStatus.CANCELLED && booking.getStatus() == Booking.BookingStatus.CONFIRMED) {
-            // Return seats to available pool
-            Ride ride = booking.getRide();
-            ride.setAvailableSeats(ride.getAvailableSeats() + booking.getSeatsBooked());
-        }
-        
-        booking.setStatus(status);
-        return bookingRepository.save(booking);
+    public BookingView getBookingView(Long bookingId) {
+        return bookingRepository.findViewById(bookingId)
+            .orElseThrow(() -> new RuntimeException("Booking not found"));
     }
     
     /**
-     * Get bookings by ride
+     * Update booking status.
+     * Runs with optimistic locking and is retried when another request
+     * changed the booking or its ride in the meantime.
      */
-    public List<Booking> getBookingsByRide(Long rideId) {
-        try {
-            System.out.println("Fetching bookings for ride ID: " + rideId);
+    public Booking updateBookingStatus(Long bookingId, Booking.BookingStatus status, Long userId) {
+        return optimisticLockRetrier.execute("booking.status", () -> {
+            // The permission check and the returned view need the passenger, ride and driver
+            Booking booking = bookingRepository.findWithParticipantsById(bookingId)
+                .orElseThrow(() -> new RuntimeException("Booking not found"));
             
-            // Check if ride exists first
-            Ride ride = rideService.getRideById(rideId);
-            System.out.println("Found ride: " + ride.getId() + " from " + ride.getFromLocation() + " to " + ride.getToLocation());
+            // Check if user has permission to update this booking
+            boolean isDriver = booking.getRide().getDriver().getId().equals(userId);
+            boolean isPassenger = booking.getPassenger().getId().equals(userId);
             
-            // Get bookings using the standard method first
-            List<Booking> bookings = bookingRepository.findByRide(ride);
-            System.out.println("Found " + bookings.size() + " bookings for ride " + rideId);
+            if (!isDriver && !isPassenger) {
+                throw new RuntimeException("You don't have permission to update this booking");
+            }
             
-            // Eagerly load passenger details to avoid lazy loading issues
-            for (Booking booking : bookings) {
-                try {
-                    // This will trigger loading of passenger data
-                    if (booking.getPassenger() != null) {
-                        String firstName = booking.getPassenger().getFirstName();
-                        String lastName = booking.getPassenger().getLastName();
-                        System.out.println("Booking " + booking.getId() + " passenger: " + firstName + " " + lastName);
-                    } else {
-                        System.out.println("Booking " + booking.getId() + " has null passenger!");
-                    }
-                } catch (Exception e) {
-                    System.err.println("Error loading passenger for booking " + booking.getId() + ": " + e.getMessage());
-                }
+            // Handle seat availability when confirming/rejecting
+            if (status == Booking.BookingStatus.CONFIRMED && booking.getStatus() == Booking.BookingStatus.PENDING) {
+                rideService.updateAvailableSeats(booking.getRide().getId(), booking.getSeatsBooked(),
+                                                 booking.getPickupStop(), booking.getDropStop());
+            } else if (status == Booking.BookingStatus.CANCELLED && booking.getStatus() == Booking.BookingStatus.CONFIRMED) {
+                // Return seats to available pool
+                rideService.releaseSeats(booking.getRide().getId(), booking.getSeatsBooked(),
+                                         booking.getPickupStop(), booking.getDropStop());
             }
             
-            return bookings;
-        } catch (Exception e) {
-            System.err.println("Error in getBookingsByRide: " + e.getMessage());
-            e.printStackTrace();
-            throw e;
-        }
+            booking.setStatus(status);
+            return bookingRepository.saveAndFlush(booking);
+        });
+    }
+    
+    /**
+     * Get bookings by ride, with passenger details
+     */
+    @Transactional(readOnly = true)
+    public List<BookingView> getBookingsByRide(Long rideId) {
+        // Check if ride exists first
+        rideService.getRideById(rideId);
+        return bookingRepository.findViewsByRideId(rideId);
     }
 }
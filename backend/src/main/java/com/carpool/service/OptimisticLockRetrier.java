@@ -0,0 +1,104 @@
+package com.carpool.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Optimistic Lock Retrier
+ *
+ * Runs an update in its own transaction and retries it with jittered
+ * exponential backoff when a concurrent writer bumped the entity version first.
+ * Each attempt re-reads the entities, so the update is re-applied to fresh state.
+ * Attempts run READ COMMITTED, as the guarded seat updates they may include
+ * need to see changes committed during the transaction.
+ *
+ * Conflicts and retries are published as the carpool.optimistic.conflicts and
+ * carpool.optimistic.retries counters, tagged with the operation name.
+ */
+@Component
+public class OptimisticLockRetrier {
+
+    private static final Logger logger = LoggerFactory.getLogger(OptimisticLockRetrier.class);
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.retry.optimistic.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${app.retry.optimistic.initial-backoff-ms:5}")
+    private long initialBackoffMs;
+
+    @Value("${app.retry.optimistic.max-backoff-ms:200}")
+    private long maxBackoffMs;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+    }
+
+    /**
+     * Execute the action, retrying on optimistic locking conflicts
+     */
+    public <T> T execute(String operation, Supplier<T> action) {
+        // Inside a caller's transaction a retry cannot see fresh state; let the caller own it
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return action.get();
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> action.get());
+            } catch (OptimisticLockingFailureException e) {
+                counter("carpool.optimistic.conflicts", operation).increment();
+
+                if (attempt >= maxAttempts) {
+                    logger.warn("Giving up on {} after {} conflicting attempts", operation, attempt);
+                    throw e;
+                }
+
+                counter("carpool.optimistic.retries", operation).increment();
+                logger.debug("Optimistic conflict on {} (attempt {}), retrying", operation, attempt);
+                backoff(attempt, e);
+            }
+        }
+    }
+
+    private void backoff(int attempt, OptimisticLockingFailureException cause) {
+        long ceiling = Math.min(maxBackoffMs, initialBackoffMs << Math.min(attempt - 1, 20));
+        long delay = ThreadLocalRandom.current().nextLong(ceiling + 1);
+
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw cause;
+        }
+    }
+
+    private Counter counter(String name, String operation) {
+        return Counter.builder(name)
+            .tag("operation", operation)
+            .register(meterRegistry);
+    }
+}
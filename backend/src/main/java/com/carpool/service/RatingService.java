@@ -0,0 +1,302 @@
+package com.carpool.service;
+
+import com.carpool.config.CacheConfig;
+import com.carpool.dto.RideSummary;
+import com.carpool.entity.Booking;
+import com.carpool.entity.User;
+import com.carpool.exception.BusinessException;
+import com.carpool.exception.TooManyRequestsException;
+import com.carpool.repository.BookingRepository;
+import com.carpool.security.SecurityUtils;
+import com.carpool.util.ValidationUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Rating Service
+ *
+ * Ratings are accepted into an in-memory write-behind buffer and flushed on a
+ * schedule. Each flush writes the new rows of the ratings ledger in one JDBC
+ * batch and then applies one atomic increment per rated user:
+ *
+ *   rating_sum += sum, rating_count += count, rating = new sum / new count
+ *
+ * so concurrent ratings never overwrite each other and the users row is touched
+ * once per flush rather than once per rating. The ledger's unique key (ride,
+ * rater, ratee) lets each participant rate another only once per ride.
+ *
+ * Buffered ratings are flushed on shutdown; a crash loses at most one flush
+ * interval of them. A batch that fails for a transient reason (lock timeout,
+ * lost connection) is kept for the next flush; one that breaks a constraint is
+ * split until the offending ratings are found, and those are dropped and
+ * counted as carpool.ratings.dropped.
+ */
+@Service
+public class RatingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RatingService.class);
+
+    private static final String INSERT_RATING =
+        "INSERT INTO ratings (ride_id, rater_id, ratee_id, score, created_at) VALUES (?, ?, ?, ?, ?)";
+
+    // rating is assigned first so it is computed from the old sum and count on every database
+    private static final String INCREMENT_AGGREGATES =
+        "UPDATE users SET rating = ROUND((rating_sum + ?) / (rating_count + ?), 1), " +
+        "rating_sum = rating_sum + ?, rating_count = rating_count + ?, total_trips = total_trips + ? " +
+        "WHERE id = ?";
+
+    // Bookings that make a passenger a participant of the ride
+    private static final Set<Booking.BookingStatus> RATEABLE_BOOKINGS =
+        EnumSet.of(Booking.BookingStatus.CONFIRMED, Booking.BookingStatus.COMPLETED);
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private RideService rideService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.ratings.buffer-capacity:10000}")
+    private int bufferCapacity;
+
+    @Value("${app.ratings.batch-size:500}")
+    private int batchSize;
+
+    // Keyed by (ride, rater, ratee), so a repeated submission is caught before it reaches the database
+    private final Map<RatingKey, Double> pending = new ConcurrentHashMap<>();
+
+    private TransactionTemplate transactionTemplate;
+
+    private Counter flushed;
+
+    private Counter dropped;
+
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        flushed = meterRegistry.counter("carpool.ratings.flushed");
+        dropped = meterRegistry.counter("carpool.ratings.dropped");
+        Gauge.builder("carpool.ratings.pending", pending, Map::size).register(meterRegistry);
+    }
+
+    /**
+     * Accept a rating of one ride participant by another. It is applied to
+     * the ratee's aggregates on the next flush.
+     */
+    public void submitRating(Long rateeId, Long requestedRaterId, Long rideId, double score) {
+        if (!ValidationUtil.isValidRange(score, 1.0, 5.0)) {
+            throw new BusinessException("Rating must be between 1.0 and 5.0");
+        }
+
+        Long raterId = SecurityUtils.resolveUserId(requestedRaterId);
+        if (raterId.equals(rateeId)) {
+            throw new BusinessException("You cannot rate yourself");
+        }
+
+        // Both lookups are served from cache in the common case
+        userService.findUserById(rateeId);
+        RideSummary ride = rideService.getRideSummary(rideId);
+        Long driverId = ride.driver().id();
+        if (!driverId.equals(raterId) && !driverId.equals(rateeId)) {
+            throw new BusinessException("Ratings can only be given between a ride's driver and its passengers");
+        }
+        Long passengerId = driverId.equals(raterId) ? rateeId : raterId;
+        if (!bookingRepository.existsByRideIdAndPassengerIdAndStatusIn(rideId, passengerId, RATEABLE_BOOKINGS)) {
+            throw new BusinessException("Ratings can only be given for a confirmed or completed booking on this ride");
+        }
+
+        if (pending.size() >= bufferCapacity) {
+            throw new TooManyRequestsException("Too many ratings are waiting to be saved, please retry shortly");
+        }
+        if (pending.putIfAbsent(new RatingKey(rideId, raterId, rateeId), score) != null) {
+            throw new BusinessException("You have already rated this user for this ride");
+        }
+    }
+
+    /**
+     * Write buffered ratings to the ledger and the users' aggregates
+     */
+    @Scheduled(fixedDelayString = "${app.ratings.flush-interval-ms:1000}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        List<Map.Entry<RatingKey, Double>> batch = new ArrayList<>(Math.min(pending.size(), batchSize));
+        for (RatingKey key : pending.keySet()) {
+            Double score = pending.remove(key);
+            if (score != null) {
+                batch.add(Map.entry(key, score));
+            }
+            if (batch.size() == batchSize) {
+                write(batch);
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+        if (!batch.isEmpty()) {
+            write(batch);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flush();
+    }
+
+    private void write(List<Map.Entry<RatingKey, Double>> batch) {
+        Set<Long> rateeIds;
+        try {
+            rateeIds = transactionTemplate.execute(status -> writeBatch(batch));
+        } catch (DataIntegrityViolationException e) {
+            if (batch.size() == 1) {
+                drop(batch, e);
+                return;
+            }
+            // Save the halves separately, narrowing down to the ratings the database refuses
+            int middle = batch.size() / 2;
+            write(batch.subList(0, middle));
+            write(batch.subList(middle, batch.size()));
+            return;
+        } catch (TransientDataAccessException | RecoverableDataAccessException
+                 | DataAccessResourceFailureException | CannotCreateTransactionException e) {
+            // Keep them for the next flush; rows already in the ledger are skipped then
+            logger.warn("Failed to save {} ratings, will retry: {}", batch.size(), e.getMessage());
+            batch.forEach(entry -> pending.putIfAbsent(entry.getKey(), entry.getValue()));
+            return;
+        } catch (RuntimeException e) {
+            // Retrying would fail the same way on every flush
+            drop(batch, e);
+            return;
+        }
+
+        // The increments bypassed Hibernate, so drop the cached copies of the rated users
+        Cache users = cacheManager.getCache(CacheConfig.USERS);
+        for (Long rateeId : rateeIds) {
+            entityManagerFactory.getCache().evict(User.class, rateeId);
+            if (users != null) {
+                users.evict(rateeId);
+            }
+        }
+        flushed.increment(batch.size());
+    }
+
+    private void drop(List<Map.Entry<RatingKey, Double>> batch, RuntimeException e) {
+        for (Map.Entry<RatingKey, Double> entry : batch) {
+            logger.error("Dropped rating {} (score {}): {}", entry.getKey(), entry.getValue(),
+                         NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+        }
+        dropped.increment(batch.size());
+    }
+
+    private Set<Long> writeBatch(List<Map.Entry<RatingKey, Double>> batch) {
+        Set<RatingKey> alreadyRated = findExisting(batch);
+        List<Map.Entry<RatingKey, Double>> fresh = batch.stream()
+            .filter(entry -> !alreadyRated.contains(entry.getKey()))
+            .toList();
+        if (fresh.isEmpty()) {
+            return Collections.emptySet();
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_RATING, fresh, fresh.size(), (ps, entry) -> {
+            ps.setLong(1, entry.getKey().rideId());
+            ps.setLong(2, entry.getKey().raterId());
+            ps.setLong(3, entry.getKey().rateeId());
+            ps.setDouble(4, entry.getValue());
+            ps.setTimestamp(5, now);
+        });
+
+        // Coalesce into one increment per rated user: [sum, count]
+        Map<Long, double[]> totals = new HashMap<>();
+        for (Map.Entry<RatingKey, Double> entry : fresh) {
+            double[] total = totals.computeIfAbsent(entry.getKey().rateeId(), id -> new double[2]);
+            total[0] += entry.getValue();
+            total[1]++;
+        }
+
+        List<Map.Entry<Long, double[]>> increments = new ArrayList<>(totals.entrySet());
+        jdbcTemplate.batchUpdate(INCREMENT_AGGREGATES, increments, increments.size(), (ps, entry) -> {
+            double sum = entry.getValue()[0];
+            int count = (int) entry.getValue()[1];
+            ps.setDouble(1, sum);
+            ps.setInt(2, count);
+            ps.setDouble(3, sum);
+            ps.setInt(4, count);
+            ps.setInt(5, count);
+            ps.setLong(6, entry.getKey());
+        });
+
+        logger.debug("Saved {} ratings for {} users", fresh.size(), totals.size());
+        return totals.keySet();
+    }
+
+    private Set<RatingKey> findExisting(List<Map.Entry<RatingKey, Double>> batch) {
+        StringBuilder sql = new StringBuilder(
+            "SELECT ride_id, rater_id, ratee_id FROM ratings WHERE (ride_id, rater_id, ratee_id) IN (");
+        List<Object> args = new ArrayList<>(batch.size() * 3);
+        for (int i = 0; i < batch.size(); i++) {
+            RatingKey key = batch.get(i).getKey();
+            sql.append(i == 0 ? "(?, ?, ?)" : ", (?, ?, ?)");
+            args.add(key.rideId());
+            args.add(key.raterId());
+            args.add(key.rateeId());
+        }
+        sql.append(')');
+
+        return new HashSet<>(jdbcTemplate.query(sql.toString(),
+            (rs, rowNum) -> new RatingKey(rs.getLong(1), rs.getLong(2), rs.getLong(3)),
+            args.toArray()));
+    }
+
+    record RatingKey(Long rideId, Long raterId, Long rateeId) {}
+}
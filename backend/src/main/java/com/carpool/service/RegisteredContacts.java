@@ -0,0 +1,93 @@
+package com.carpool.service;
+
+import com.carpool.repository.UserRepository;
+import com.carpool.util.BloomFilter;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Registered Contacts
+ *
+ * In-memory Bloom filters of every registered email and phone number. Signups
+ * with a new email and phone (the common case) skip the duplicate lookups and
+ * go straight to the insert; only a possible match is checked against the
+ * database. The unique constraints on users remain the final word.
+ *
+ * Filled once the application is ready and kept current by registerUser.
+ * Until then every value is reported as possibly registered.
+ */
+@Component
+public class RegisteredContacts {
+
+    private static final Logger logger = LoggerFactory.getLogger(RegisteredContacts.class);
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Value("${app.registration.bloom.expected-users:1000000}")
+    private long expectedUsers;
+
+    @Value("${app.registration.bloom.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    private BloomFilter emails;
+
+    private BloomFilter phones;
+
+    private volatile boolean loaded;
+
+    @PostConstruct
+    void init() {
+        emails = new BloomFilter(expectedUsers, falsePositiveRate);
+        phones = new BloomFilter(expectedUsers, falsePositiveRate);
+    }
+
+    /**
+     * Load the contacts of all existing users
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void load() {
+        AtomicLong count = new AtomicLong();
+        try (Stream<UserRepository.ContactView> contacts = userRepository.streamAllContacts()) {
+            contacts.forEach(contact -> {
+                add(contact.getEmail(), contact.getPhone());
+                count.incrementAndGet();
+            });
+        }
+        loaded = true;
+        logger.info("Registration filter loaded with {} users", count.get());
+    }
+
+    /**
+     * Record a newly registered user's normalized email and phone
+     */
+    public void add(String email, String phone) {
+        emails.put(email);
+        phones.put(phone);
+    }
+
+    /**
+     * False only when no user has registered this normalized email
+     */
+    public boolean mightHaveEmail(String email) {
+        return !loaded || emails.mightContain(email);
+    }
+
+    /**
+     * False only when no user has registered this normalized phone number
+     */
+    public boolean mightHavePhone(String phone) {
+        return !loaded || phones.mightContain(phone);
+    }
+}
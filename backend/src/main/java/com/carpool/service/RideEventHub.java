@@ -0,0 +1,438 @@
+package com.carpool.service;
+
+import com.carpool.dto.RideAvailabilityEvent;
+import com.carpool.entity.Ride;
+import com.carpool.exception.TooManyRequestsException;
+import com.carpool.util.LocationNormalizer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Ride Event Hub
+ *
+ * Fans ride seat and status changes out to Server-Sent Event subscribers of a
+ * ride or of a (from, to, date) route. Changes are published after commit and
+ * only queued on the subscribers they concern; a small pool of sender threads
+ * writes them out. Each subscriber keeps at most one pending event per ride,
+ * so a burst of bookings on a ride reaches a slow client as its latest state,
+ * and at most app.rides.events.buffer-size rides. Past that the backlog is
+ * dropped for a single "resync" event telling the client to reload.
+ *
+ * An idle subscriber is an async request holding no thread, plus its pending
+ * map, so one node can hold tens of thousands of them (see
+ * server.tomcat.max-connections); app.rides.events.max-subscribers caps them.
+ */
+@Component
+public class RideEventHub {
+
+    private static final Logger logger = LoggerFactory.getLogger(RideEventHub.class);
+
+    private static final String SEATS_EVENT = "seats";
+
+    private static final String REMOVED_EVENT = "removed";
+
+    private static final String RESYNC_EVENT = "resync";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.rides.events.max-subscribers:20000}")
+    private int maxSubscribers;
+
+    @Value("${app.rides.events.buffer-size:32}")
+    private int bufferSize;
+
+    @Value("${app.rides.events.timeout:30m}")
+    private Duration timeout;
+
+    @Value("${app.rides.events.threads:2}")
+    private int threads;
+
+    private final Map<Long, Set<Subscriber>> rideSubscribers = new ConcurrentHashMap<>();
+
+    private final Map<RouteKey, Set<Subscriber>> routeSubscribers = new ConcurrentHashMap<>();
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+
+    private ThreadPoolExecutor senders;
+
+    private Counter resyncs;
+
+    @PostConstruct
+    void init() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        // Each subscriber is queued at most once at a time, so the queue is bounded by the subscriber count
+        senders = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(),
+            runnable -> {
+                Thread thread = new Thread(runnable, "ride-events-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+
+        new ExecutorServiceMetrics(senders, "rideEvents", Tags.empty()).bindTo(meterRegistry);
+        Gauge.builder("carpool.ride.events.subscribers", subscriberCount, AtomicInteger::get).register(meterRegistry);
+        resyncs = meterRegistry.counter("carpool.ride.events.resyncs");
+    }
+
+    @PreDestroy
+    void shutdown() {
+        senders.shutdownNow();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.emitter().complete();
+        }
+    }
+
+    /**
+     * Subscribe to changes of one ride. The current state is sent first; it is
+     * read only once the subscriber is registered, so a change committing in
+     * between is not missed, and is dropped if such a change was published.
+     */
+    public SseEmitter subscribeToRide(Long rideId, Supplier<RideAvailabilityEvent> current) {
+        Subscriber subscriber = register(rideId, null, null);
+        rideSubscribers.computeIfAbsent(rideId, id -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        try {
+            subscriber.offerCurrent(current.get());
+        } catch (RuntimeException e) {
+            unregister(subscriber);
+            throw e;
+        }
+        return subscriber.emitter();
+    }
+
+    /**
+     * Subscribe to changes of every ride from {@code from} to {@code to} on the
+     * date, between any two of its stops
+     */
+    public SseEmitter subscribeToRoute(String from, String to, LocalDate date) {
+        List<String> fromTokens = LocationNormalizer.tokenize(from);
+        List<String> toTokens = LocationNormalizer.tokenize(to);
+        if (fromTokens.isEmpty() || toTokens.isEmpty()) {
+            throw new RuntimeException("From and to must name a location");
+        }
+
+        // The longest token is usually the most selective bucket
+        RouteKey key = new RouteKey(longest(fromTokens), longest(toTokens), date);
+        Subscriber subscriber = register(null, key, new RouteFilter(fromTokens, toTokens));
+        routeSubscribers.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        return subscriber.emitter();
+    }
+
+    /**
+     * Push a ride's current seats and status to its subscribers. Call once the
+     * change has committed, so a rolled back change is never sent.
+     */
+    public void publish(Ride ride) {
+        publish(ride, SEATS_EVENT);
+    }
+
+    /**
+     * Tell a deleted ride's subscribers it is gone
+     */
+    public void publishRemoved(Ride ride) {
+        publish(ride, REMOVED_EVENT);
+    }
+
+    /**
+     * Number of open subscriptions
+     */
+    public int size() {
+        return subscriberCount.get();
+    }
+
+    private void publish(Ride ride, String name) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+
+        RideAvailabilityEvent event = RideAvailabilityEvent.of(ride);
+        List<Set<String>> stopTokens = new ArrayList<>();
+        for (String location : ride.getRouteLocations()) {
+            stopTokens.add(new HashSet<>(LocationNormalizer.tokenize(location)));
+        }
+        LocalDate date = ride.getDepartureDate();
+
+        fanOut(name, event, stopTokens, date);
+    }
+
+    private void fanOut(String name, RideAvailabilityEvent event, List<Set<String>> stopTokens, LocalDate date) {
+        Set<Subscriber> targets = new HashSet<>(rideSubscribers.getOrDefault(event.rideId(), Set.of()));
+        if (!routeSubscribers.isEmpty()) {
+            for (RouteKey key : routeKeys(stopTokens, date)) {
+                for (Subscriber subscriber : routeSubscribers.getOrDefault(key, Set.of())) {
+                    if (subscriber.route().servedBy(stopTokens)) {
+                        targets.add(subscriber);
+                    }
+                }
+            }
+        }
+
+        for (Subscriber subscriber : targets) {
+            subscriber.offer(name, event);
+        }
+    }
+
+    /**
+     * Keep idle connections from being dropped by proxies, and find the ones whose client has gone
+     */
+    @Scheduled(fixedDelayString = "${app.rides.events.heartbeat-interval-ms:30000}")
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.ping();
+        }
+    }
+
+    private Subscriber register(Long rideId, RouteKey routeKey, RouteFilter route) {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new TooManyRequestsException("Too many live subscriptions, please retry shortly");
+        }
+
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        Subscriber subscriber = new Subscriber(emitter, rideId, routeKey, route);
+        subscribers.add(subscriber);
+        // Clients reconnect on their own once the stream times out
+        emitter.onTimeout(emitter::complete);
+        emitter.onCompletion(() -> unregister(subscriber));
+        emitter.onError(e -> unregister(subscriber));
+        return subscriber;
+    }
+
+    private void unregister(Subscriber subscriber) {
+        if (!subscriber.closed().compareAndSet(false, true)) {
+            return;
+        }
+
+        if (subscriber.rideId() != null) {
+            rideSubscribers.computeIfPresent(subscriber.rideId(),
+                (id, set) -> set.remove(subscriber) && set.isEmpty() ? null : set);
+        } else {
+            routeSubscribers.computeIfPresent(subscriber.routeKey(),
+                (key, set) -> set.remove(subscriber) && set.isEmpty() ? null : set);
+        }
+        subscribers.remove(subscriber);
+        subscriberCount.decrementAndGet();
+    }
+
+    private static Set<RouteKey> routeKeys(List<Set<String>> stopTokens, LocalDate date) {
+        Set<RouteKey> keys = new HashSet<>();
+        for (int pickup = 0; pickup < stopTokens.size() - 1; pickup++) {
+            for (int drop = pickup + 1; drop < stopTokens.size(); drop++) {
+                for (String fromToken : stopTokens.get(pickup)) {
+                    for (String toToken : stopTokens.get(drop)) {
+                        keys.add(new RouteKey(fromToken, toToken, date));
+                    }
+                }
+            }
+        }
+        return keys;
+    }
+
+    private static String longest(List<String> tokens) {
+        String longest = tokens.get(0);
+        for (String token : tokens) {
+            if (token.length() > longest.length()) {
+                longest = token;
+            }
+        }
+        return longest;
+    }
+
+    private record RouteKey(String fromToken, String toToken, LocalDate date) {}
+
+    private record RouteFilter(List<String> fromTokens, List<String> toTokens) {
+
+        /**
+         * Whether some stop matches the from location and a later one the to location
+         */
+        boolean servedBy(List<Set<String>> stopTokens) {
+            for (int pickup = 0; pickup < stopTokens.size() - 1; pickup++) {
+                if (!stopTokens.get(pickup).containsAll(fromTokens)) {
+                    continue;
+                }
+                for (int drop = pickup + 1; drop < stopTokens.size(); drop++) {
+                    if (stopTokens.get(drop).containsAll(toTokens)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * One open event stream. Pending events are coalesced per ride; while a send
+     * is queued or running the subscriber is not queued again, so its events go
+     * out in order from one sender thread at a time.
+     */
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+
+        private final Long rideId;
+
+        private final RouteKey routeKey;
+
+        private final RouteFilter route;
+
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        // Guarded by this
+        private final Map<Long, PendingEvent> pending = new LinkedHashMap<>();
+
+        private boolean resync;
+
+        private boolean published;
+
+        private boolean heartbeat;
+
+        private boolean queued;
+
+        Subscriber(SseEmitter emitter, Long rideId, RouteKey routeKey, RouteFilter route) {
+            this.emitter = emitter;
+            this.rideId = rideId;
+            this.routeKey = routeKey;
+            this.route = route;
+        }
+
+        SseEmitter emitter() {
+            return emitter;
+        }
+
+        Long rideId() {
+            return rideId;
+        }
+
+        RouteKey routeKey() {
+            return routeKey;
+        }
+
+        RouteFilter route() {
+            return route;
+        }
+
+        AtomicBoolean closed() {
+            return closed;
+        }
+
+        void offer(String name, RideAvailabilityEvent event) {
+            synchronized (this) {
+                published = true;
+                if (resync) {
+                    return;
+                }
+                // Replacing the entry keeps only the latest state of the ride
+                pending.put(event.rideId(), new PendingEvent(name, event));
+                if (pending.size() > bufferSize) {
+                    pending.clear();
+                    resync = true;
+                    resyncs.increment();
+                }
+            }
+            schedule();
+        }
+
+        /**
+         * Offer the state read at subscription, unless a change published since
+         * registering already carries a state at least as new
+         */
+        void offerCurrent(RideAvailabilityEvent event) {
+            synchronized (this) {
+                if (published) {
+                    return;
+                }
+            }
+            offer(SEATS_EVENT, event);
+        }
+
+        void ping() {
+            synchronized (this) {
+                heartbeat = true;
+            }
+            schedule();
+        }
+
+        private void schedule() {
+            synchronized (this) {
+                if (queued || closed.get()) {
+                    return;
+                }
+                queued = true;
+            }
+            senders.execute(this::send);
+        }
+
+        private void send() {
+            while (true) {
+                List<PendingEvent> events;
+                boolean sendResync;
+                boolean sendHeartbeat;
+                synchronized (this) {
+                    if (pending.isEmpty() && !resync && !heartbeat) {
+                        queued = false;
+                        return;
+                    }
+                    events = new ArrayList<>(pending.values());
+                    pending.clear();
+                    sendResync = resync;
+                    resync = false;
+                    sendHeartbeat = heartbeat && events.isEmpty() && !sendResync;
+                    heartbeat = false;
+                }
+
+                try {
+                    if (sendResync) {
+                        emitter.send(SseEmitter.event().name(RESYNC_EVENT).data("", MediaType.TEXT_PLAIN));
+                    }
+                    for (PendingEvent event : events) {
+                        emitter.send(SseEmitter.event().name(event.name())
+                                                .data(event.event(), MediaType.APPLICATION_JSON));
+                    }
+                    if (sendHeartbeat) {
+                        emitter.send(SseEmitter.event().comment("heartbeat"));
+                    }
+                } catch (IOException | IllegalStateException e) {
+                    // The client went away or the stream already completed
+                    logger.debug("Dropping ride event subscriber: {}", e.getMessage());
+                    unregister(this);
+                    emitter.completeWithError(e);
+                    return;
+                }
+            }
+        }
+    }
+
+    private record PendingEvent(String name, RideAvailabilityEvent event) {}
+}
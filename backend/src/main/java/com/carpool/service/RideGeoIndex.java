@@ -0,0 +1,139 @@
+package com.carpool.service;
+
+import com.carpool.entity.Ride;
+import com.carpool.util.GeoHash;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Ride Geo Index
+ *
+ * In-memory index of active rides that have pickup and drop coordinates,
+ * keyed by (pickup geohash cell, departure date). A nearby search looks up
+ * the cells around the pickup point and filters the rides found there by
+ * exact distance to both points, so it never scans rides in other areas.
+ */
+@Component
+public class RideGeoIndex {
+
+    private static final Comparator<GeoRide> DEPARTURE_ORDER =
+        Comparator.comparing(GeoRide::departureTime).thenComparing(GeoRide::id);
+
+    private final Map<CellKey, Map<Long, GeoRide>> cells = new ConcurrentHashMap<>();
+
+    private final Map<Long, GeoRide> rides = new ConcurrentHashMap<>();
+
+    /**
+     * Add or refresh a ride in the index. Rides that are no longer active,
+     * or have no coordinates, are removed.
+     */
+    public void index(Ride ride) {
+        remove(ride.getId());
+
+        if (ride.getStatus() != Ride.RideStatus.ACTIVE || !ride.hasCoordinates()) {
+            return;
+        }
+
+        GeoRide entry = new GeoRide(
+            ride.getId(),
+            ride.getDepartureDate(),
+            ride.getDepartureTime(),
+            ride.getAvailableSeats(),
+            ride.getPickupLatitude(),
+            ride.getPickupLongitude(),
+            ride.getDropLatitude(),
+            ride.getDropLongitude()
+        );
+
+        rides.put(entry.id(), entry);
+        cells.computeIfAbsent(entry.key(), k -> new ConcurrentHashMap<>()).put(entry.id(), entry);
+    }
+
+    /**
+     * Remove a ride from the index
+     */
+    public void remove(Long rideId) {
+        GeoRide entry = rides.remove(rideId);
+        if (entry == null) {
+            return;
+        }
+
+        cells.computeIfPresent(entry.key(), (k, bucket) -> {
+            bucket.remove(rideId);
+            return bucket.isEmpty() ? null : bucket;
+        });
+    }
+
+    /**
+     * Find rides with free seats on the given date that pick up within
+     * {@code radiusKm} of the from point and drop off within {@code radiusKm}
+     * of the to point, ordered by departure time
+     */
+    public List<RideSearchIndex.Match> search(double fromLatitude, double fromLongitude,
+                                              double toLatitude, double toLongitude,
+                                              double radiusKm, LocalDate date) {
+        List<GeoRide> matches = new ArrayList<>();
+        for (long cell : GeoHash.cellsWithin(fromLatitude, fromLongitude, radiusKm)) {
+            Map<Long, GeoRide> bucket = cells.get(new CellKey(cell, date));
+            if (bucket == null) {
+                continue;
+            }
+
+            for (GeoRide entry : bucket.values()) {
+                if (entry.availableSeats() > 0
+                        && GeoHash.distanceKm(fromLatitude, fromLongitude,
+                                              entry.pickupLatitude(), entry.pickupLongitude()) <= radiusKm
+                        && GeoHash.distanceKm(toLatitude, toLongitude,
+                                              entry.dropLatitude(), entry.dropLongitude()) <= radiusKm) {
+                    matches.add(entry);
+                }
+            }
+        }
+        matches.sort(DEPARTURE_ORDER);
+
+        List<RideSearchIndex.Match> results = new ArrayList<>(matches.size());
+        for (GeoRide entry : matches) {
+            results.add(new RideSearchIndex.Match(entry.id(), date, entry.departureTime()));
+        }
+        return results;
+    }
+
+    /**
+     * Remove rides departing before the given date; returns how many were removed
+     */
+    public int pruneDepartedBefore(LocalDate date) {
+        int pruned = 0;
+        for (GeoRide entry : rides.values()) {
+            if (entry.departureDate().isBefore(date)) {
+                remove(entry.id());
+                pruned++;
+            }
+        }
+        return pruned;
+    }
+
+    /**
+     * Number of rides currently indexed
+     */
+    public int size() {
+        return rides.size();
+    }
+
+    private record CellKey(long cell, LocalDate departureDate) {}
+
+    private record GeoRide(Long id, LocalDate departureDate, LocalTime departureTime, int availableSeats,
+                           double pickupLatitude, double pickupLongitude,
+                           double dropLatitude, double dropLongitude) {
+
+        CellKey key() {
+            return new CellKey(GeoHash.cell(pickupLatitude, pickupLongitude), departureDate);
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package com.carpool.service;
+
+import com.carpool.entity.Ride;
+import com.carpool.util.GeoHash;
+import com.carpool.util.Polyline;
+import com.carpool.util.RTree;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Ride Route Index
+ *
+ * In-memory R-tree, one per departure date, over the route polylines of
+ * active rides. A corridor search finds the rides whose route passes within
+ * a given distance of the passenger's pickup point and, further along the
+ * route, of their drop point, so passengers along the way match as well as
+ * those at the endpoints.
+ */
+@Component
+public class RideRouteIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(RideRouteIndex.class);
+
+    // Consecutive segments share one tree entry, so a long route is a few entries rather than hundreds
+    private static final int SEGMENTS_PER_RUN = 8;
+
+    private static final Comparator<RoutedRide> DEPARTURE_ORDER =
+        Comparator.comparing(RoutedRide::departureTime).thenComparing(RoutedRide::id);
+
+    private final Map<LocalDate, RTree<RouteRun>> trees = new HashMap<>();
+
+    private final Map<Long, RoutedRide> rides = new HashMap<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Add or refresh a ride in the index. Rides that are no longer active,
+     * or have no route, are removed.
+     */
+    public void index(Ride ride) {
+        RoutedRide entry = null;
+        if (ride.getStatus() == Ride.RideStatus.ACTIVE && ride.getRoutePolyline() != null) {
+            try {
+                int[] points = Polyline.decode(ride.getRoutePolyline());
+                if (points.length >= 4) {
+                    entry = new RoutedRide(ride.getId(), ride.getDepartureDate(), ride.getDepartureTime(),
+                                           ride.getAvailableSeats(), points);
+                }
+            } catch (IllegalArgumentException e) {
+                logger.warn("Ride {} has an unreadable route polyline: {}", ride.getId(), e.getMessage());
+            }
+        }
+
+        lock.writeLock().lock();
+        try {
+            removeRide(ride.getId());
+            if (entry != null) {
+                rides.put(entry.id(), entry);
+                RTree<RouteRun> tree = trees.computeIfAbsent(entry.departureDate(), d -> new RTree<>());
+                for (RouteRun run : entry.runs()) {
+                    tree.insert(run.minLongitude(), run.minLatitude(), run.maxLongitude(), run.maxLatitude(), run);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove a ride from the index
+     */
+    public void remove(Long rideId) {
+        lock.writeLock().lock();
+        try {
+            removeRide(rideId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Find rides with free seats on the given date whose route passes within
+     * {@code distanceKm} of the from point and, later on, of the to point,
+     * ordered by departure time
+     */
+    public List<RideSearchIndex.Match> search(double fromLatitude, double fromLongitude,
+                                              double toLatitude, double toLongitude,
+                                              double distanceKm, LocalDate date) {
+        List<RoutedRide> matches = new ArrayList<>();
+
+        lock.readLock().lock();
+        try {
+            RTree<RouteRun> tree = trees.get(date);
+            if (tree == null) {
+                return List.of();
+            }
+
+            // Earliest point of each route near the pickup...
+            Map<Long, Double> pickups = new HashMap<>();
+            searchNear(tree, fromLatitude, fromLongitude, distanceKm, run -> {
+                double position = run.firstPositionNear(fromLatitude, fromLongitude, distanceKm);
+                if (!Double.isNaN(position)) {
+                    pickups.merge(run.ride().id(), position, Math::min);
+                }
+            });
+            if (pickups.isEmpty()) {
+                return List.of();
+            }
+
+            // ...and the latest point near the drop, which has to come after it
+            Map<Long, Double> drops = new HashMap<>();
+            searchNear(tree, toLatitude, toLongitude, distanceKm, run -> {
+                if (!pickups.containsKey(run.ride().id())) {
+                    return;
+                }
+                double position = run.lastPositionNear(toLatitude, toLongitude, distanceKm);
+                if (!Double.isNaN(position)) {
+                    drops.merge(run.ride().id(), position, Math::max);
+                }
+            });
+
+            for (Map.Entry<Long, Double> drop : drops.entrySet()) {
+                RoutedRide ride = rides.get(drop.getKey());
+                if (ride.availableSeats() > 0 && pickups.get(drop.getKey()) < drop.getValue()) {
+                    matches.add(ride);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        matches.sort(DEPARTURE_ORDER);
+
+        List<RideSearchIndex.Match> results = new ArrayList<>(matches.size());
+        for (RoutedRide ride : matches) {
+            results.add(new RideSearchIndex.Match(ride.id(), date, ride.departureTime()));
+        }
+        return results;
+    }
+
+    /**
+     * Remove rides departing before the given date, with the trees of those
+     * dates; returns how many rides were removed
+     */
+    public int pruneDepartedBefore(LocalDate date) {
+        lock.writeLock().lock();
+        try {
+            int before = rides.size();
+            rides.values().removeIf(ride -> ride.departureDate().isBefore(date));
+            trees.keySet().removeIf(day -> day.isBefore(date));
+            return before - rides.size();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Number of rides currently indexed
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return rides.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removeRide(Long rideId) {
+        RoutedRide entry = rides.remove(rideId);
+        if (entry == null) {
+            return;
+        }
+
+        RTree<RouteRun> tree = trees.get(entry.departureDate());
+        for (RouteRun run : entry.runs()) {
+            tree.remove(run.minLongitude(), run.minLatitude(), run.maxLongitude(), run.maxLatitude(), run);
+        }
+        if (tree.isEmpty()) {
+            trees.remove(entry.departureDate());
+        }
+    }
+
+    private static void searchNear(RTree<RouteRun> tree, double latitude, double longitude, double distanceKm,
+                                   Consumer<RouteRun> consumer) {
+        double latSpan = distanceKm / GeoHash.KM_PER_DEGREE;
+        double lngSpan = latSpan / Math.max(0.01, Math.cos(Math.toRadians(latitude)));
+        tree.search(longitude - lngSpan, latitude - latSpan, longitude + lngSpan, latitude + latSpan, consumer);
+    }
+
+    /**
+     * An indexed ride; points are its simplified route as [lat, lng, ...] in 1e-5 degrees
+     */
+    private record RoutedRide(Long id, LocalDate departureDate, LocalTime departureTime, int availableSeats,
+                              int[] points) {
+
+        List<RouteRun> runs() {
+            int segments = points.length / 2 - 1;
+            List<RouteRun> runs = new ArrayList<>((segments + SEGMENTS_PER_RUN - 1) / SEGMENTS_PER_RUN);
+            for (int first = 0; first < segments; first += SEGMENTS_PER_RUN) {
+                runs.add(RouteRun.of(this, first, Math.min(first + SEGMENTS_PER_RUN, segments)));
+            }
+            return runs;
+        }
+    }
+
+    /**
+     * Route points {@code firstPoint} to {@code lastPoint} of a ride with their bounding box in degrees.
+     * Positions along the route are segment number plus the fraction of that segment.
+     */
+    private record RouteRun(RoutedRide ride, int firstPoint, int lastPoint,
+                            double minLatitude, double minLongitude, double maxLatitude, double maxLongitude) {
+
+        static RouteRun of(RoutedRide ride, int firstPoint, int lastPoint) {
+            int[] points = ride.points();
+            double minLatitude = Double.POSITIVE_INFINITY;
+            double minLongitude = Double.POSITIVE_INFINITY;
+            double maxLatitude = Double.NEGATIVE_INFINITY;
+            double maxLongitude = Double.NEGATIVE_INFINITY;
+            for (int i = firstPoint; i <= lastPoint; i++) {
+                double latitude = points[2 * i] / Polyline.SCALE;
+                double longitude = points[2 * i + 1] / Polyline.SCALE;
+                minLatitude = Math.min(minLatitude, latitude);
+                minLongitude = Math.min(minLongitude, longitude);
+                maxLatitude = Math.max(maxLatitude, latitude);
+                maxLongitude = Math.max(maxLongitude, longitude);
+            }
+            return new RouteRun(ride, firstPoint, lastPoint, minLatitude, minLongitude, maxLatitude, maxLongitude);
+        }
+
+        double firstPositionNear(double latitude, double longitude, double distanceKm) {
+            for (int i = firstPoint; i < lastPoint; i++) {
+                if (Polyline.distanceToSegmentKm(latitude, longitude, ride.points(), i, i + 1) <= distanceKm) {
+                    return i + Polyline.closestFraction(latitude, longitude, ride.points(), i, i + 1);
+                }
+            }
+            return Double.NaN;
+        }
+
+        double lastPositionNear(double latitude, double longitude, double distanceKm) {
+            for (int i = lastPoint - 1; i >= firstPoint; i--) {
+                if (Polyline.distanceToSegmentKm(latitude, longitude, ride.points(), i, i + 1) <= distanceKm) {
+                    return i + Polyline.closestFraction(latitude, longitude, ride.points(), i, i + 1);
+                }
+            }
+            return Double.NaN;
+        }
+    }
+}
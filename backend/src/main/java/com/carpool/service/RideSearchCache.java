@@ -0,0 +1,116 @@
+package com.carpool.service;
+
+import com.carpool.config.CacheConfig;
+import com.carpool.entity.Ride;
+import com.carpool.util.LocationNormalizer;
+import com.github.benmanes.caffeine.cache.Cache;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Ride Search Cache
+ *
+ * Caches search results as ordered ride matches per normalized (from, to) and
+ * departure window, so "Mumbai", " mumbai " and "Mumbaí" share one entry. When
+ * a ride enters or leaves the search results only the entries whose window
+ * covers its departure and whose route it satisfies, between any two of its
+ * stops, are dropped; every other route stays warm.
+ *
+ * Entries live in the bounded rideSearch Caffeine cache, which also reports
+ * its hit and miss rates through actuator.
+ */
+@Component
+public class RideSearchCache {
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private Cache<Object, Object> cache;
+
+    // Bumped by every invalidation, so a result computed before it is not stored after it
+    private final AtomicLong invalidations = new AtomicLong();
+
+    @PostConstruct
+    @SuppressWarnings("unchecked")
+    void init() {
+        cache = (Cache<Object, Object>) cacheManager.getCache(CacheConfig.RIDE_SEARCH).getNativeCache();
+    }
+
+    /**
+     * Get the cached matches for a search, computing and caching them on a miss
+     */
+    @SuppressWarnings("unchecked")
+    public List<RideSearchIndex.Match> get(String from, String to, LocalDate date,
+                                           LocalTime earliestTime, LocalTime latestTime, int flexDays,
+                                           Supplier<List<RideSearchIndex.Match>> search) {
+        SearchKey key = new SearchKey(LocationNormalizer.tokenize(from), LocationNormalizer.tokenize(to),
+                                      date, earliestTime, latestTime, flexDays);
+
+        List<RideSearchIndex.Match> matches = (List<RideSearchIndex.Match>) cache.getIfPresent(key);
+        if (matches != null) {
+            return matches;
+        }
+
+        long stamp = invalidations.get();
+        List<RideSearchIndex.Match> computed = search.get();
+        cache.asMap().compute(key, (k, current) -> invalidations.get() == stamp ? computed : current);
+        return computed;
+    }
+
+    /**
+     * Drop cached searches that the ride matches. Call once the change has
+     * committed, so a search recomputed right after sees it.
+     */
+    public void invalidate(Ride ride) {
+        List<Set<String>> stopTokens = new ArrayList<>();
+        for (String location : ride.getRouteLocations()) {
+            stopTokens.add(new HashSet<>(LocationNormalizer.tokenize(location)));
+        }
+        LocalDate date = ride.getDepartureDate();
+        LocalTime time = ride.getDepartureTime();
+
+        invalidations.incrementAndGet();
+        cache.asMap().keySet().removeIf(key -> key instanceof SearchKey search
+            && search.covers(date, time)
+            && servesSearch(stopTokens, search));
+    }
+
+    /**
+     * Whether some stop matches the search's from location and a later one its to location
+     */
+    private static boolean servesSearch(List<Set<String>> stopTokens, SearchKey search) {
+        for (int pickup = 0; pickup < stopTokens.size() - 1; pickup++) {
+            if (!stopTokens.get(pickup).containsAll(search.fromTokens())) {
+                continue;
+            }
+            for (int drop = pickup + 1; drop < stopTokens.size(); drop++) {
+                if (stopTokens.get(drop).containsAll(search.toTokens())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private record SearchKey(List<String> fromTokens, List<String> toTokens, LocalDate date,
+                             LocalTime earliestTime, LocalTime latestTime, int flexDays) {
+
+        boolean covers(LocalDate departureDate, LocalTime departureTime) {
+            return !departureDate.isBefore(date.minusDays(flexDays))
+                && !departureDate.isAfter(date.plusDays(flexDays))
+                && !departureTime.isBefore(earliestTime)
+                && !departureTime.isAfter(latestTime);
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package com.carpool.service;
+
+import com.carpool.entity.Ride;
+import com.carpool.util.LocationNormalizer;
+import com.carpool.util.SegmentTree;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Ride Search Index
+ *
+ * In-memory route index over active rides, keyed by (from token, to token)
+ * for every pair of locations along the route, so a search between two
+ * intermediate stops finds the ride too. Each route holds its rides in a
+ * skip list sorted by departure, so a departure window over any span of
+ * days is a logarithmic range scan. Whether the part of the route searched
+ * for has seats is a range-minimum query on the ride's seat inventory.
+ * Ride search answers from here instead of running a LIKE '%from%' scan
+ * over the rides table.
+ */
+@Component
+public class RideSearchIndex {
+
+    private static final Comparator<DepartureKey> DEPARTURE_ORDER =
+        Comparator.comparing(DepartureKey::departure).thenComparing(DepartureKey::id);
+
+    private final Map<RouteKey, NavigableMap<DepartureKey, IndexedRide>> routes = new ConcurrentHashMap<>();
+
+    private final Map<Long, IndexedRide> rides = new ConcurrentHashMap<>();
+
+    /**
+     * Add or refresh a ride in the index. Rides that are no longer active are removed.
+     * Returns true when the ride entered or left the search results for some part
+     * of its route (created, a segment filled or reopened, cancelled), i.e. when
+     * cached results for its route are stale.
+     */
+    public boolean index(Ride ride) {
+        IndexedRide previous = removeEntry(ride.getId());
+        long openBefore = previous != null ? previous.openSegments() : 0;
+
+        if (ride.getStatus() != Ride.RideStatus.ACTIVE) {
+            return openBefore != 0;
+        }
+
+        List<Set<String>> stopTokens = new ArrayList<>();
+        for (String location : ride.getRouteLocations()) {
+            stopTokens.add(new LinkedHashSet<>(LocationNormalizer.tokenize(location)));
+        }
+        IndexedRide entry = new IndexedRide(
+            ride.getId(),
+            ride.getDepartureDate(),
+            ride.getDepartureTime(),
+            stopTokens,
+            ride.seatInventory(),
+            openSegments(ride.getSegmentSeats())
+        );
+
+        rides.put(entry.id(), entry);
+        for (RouteKey key : entry.keys()) {
+            routes.computeIfAbsent(key, k -> new ConcurrentSkipListMap<>(DEPARTURE_ORDER))
+                  .put(entry.departureKey(), entry);
+        }
+        return openBefore != entry.openSegments();
+    }
+
+    /**
+     * Remove a ride from the index. Returns true when the ride was showing up in search results.
+     */
+    public boolean remove(Long rideId) {
+        IndexedRide entry = removeEntry(rideId);
+        return entry != null && entry.openSegments() != 0;
+    }
+
+    private IndexedRide removeEntry(Long rideId) {
+        IndexedRide entry = rides.remove(rideId);
+        if (entry == null) {
+            return null;
+        }
+
+        for (RouteKey key : entry.keys()) {
+            routes.computeIfPresent(key, (k, bucket) -> {
+                bucket.remove(entry.departureKey());
+                return bucket.isEmpty() ? null : bucket;
+            });
+        }
+        return entry;
+    }
+
+    /**
+     * Find rides with a location containing every token of {@code from} and a
+     * later one containing every token of {@code to}, with free seats on every
+     * segment in between, departing between {@code earliest} and {@code latest}
+     * inclusive, ordered by departure
+     */
+    public List<Match> search(String from, String to, LocalDateTime earliest, LocalDateTime latest) {
+        List<String> fromTokens = LocationNormalizer.tokenize(from);
+        List<String> toTokens = LocationNormalizer.tokenize(to);
+
+        if (fromTokens.isEmpty() || toTokens.isEmpty()) {
+            return List.of();
+        }
+
+        // The longest token is usually the most selective bucket
+        NavigableMap<DepartureKey, IndexedRide> bucket =
+            routes.get(new RouteKey(longest(fromTokens), longest(toTokens)));
+        if (bucket == null) {
+            return List.of();
+        }
+
+        // The skip list is already in departure order, so the window needs no sorting
+        List<Match> results = new ArrayList<>();
+        NavigableMap<DepartureKey, IndexedRide> window = bucket.subMap(
+            new DepartureKey(earliest, Long.MIN_VALUE), true, new DepartureKey(latest, Long.MAX_VALUE), true);
+        for (IndexedRide entry : window.values()) {
+            if (entry.openSegments() != 0 && entry.hasSeatsBetween(fromTokens, toTokens)) {
+                results.add(new Match(entry.id(), entry.departureDate(), entry.departureTime()));
+            }
+        }
+        return List.copyOf(results);
+    }
+
+    /**
+     * Remove rides departing before the given date; returns how many were removed
+     */
+    public int pruneDepartedBefore(LocalDate date) {
+        int pruned = 0;
+        for (IndexedRide entry : rides.values()) {
+            if (entry.departureDate().isBefore(date) && removeEntry(entry.id()) != null) {
+                pruned++;
+            }
+        }
+        return pruned;
+    }
+
+    /**
+     * Number of rides currently indexed
+     */
+    public int size() {
+        return rides.size();
+    }
+
+    /**
+     * Bit i is set when segment i has seats left
+     */
+    private static long openSegments(int[] segmentSeats) {
+        long open = 0;
+        for (int i = 0; i < segmentSeats.length; i++) {
+            if (segmentSeats[i] > 0) {
+                open |= 1L << i;
+            }
+        }
+        return open;
+    }
+
+    private static String longest(List<String> tokens) {
+        String longest = tokens.get(0);
+        for (String token : tokens) {
+            if (token.length() > longest.length()) {
+                longest = token;
+            }
+        }
+        return longest;
+    }
+
+    /**
+     * A search hit: the ride ID and the departure it is ordered by
+     */
+    public record Match(Long id, LocalDate departureDate, LocalTime departureTime) {}
+
+    private record RouteKey(String fromToken, String toToken) {}
+
+    private record DepartureKey(LocalDateTime departure, Long id) {}
+
+    /**
+     * An indexed ride; stopTokens are the tokens of each location along the route, by stop position
+     */
+    private record IndexedRide(Long id, LocalDate departureDate, LocalTime departureTime,
+                               List<Set<String>> stopTokens, SegmentTree seats, long openSegments) {
+
+        DepartureKey departureKey() {
+            return new DepartureKey(departureDate.atTime(departureTime), id);
+        }
+
+        boolean hasSeatsBetween(List<String> fromTokens, List<String> toTokens) {
+            for (int pickup = 0; pickup < stopTokens.size() - 1; pickup++) {
+                if (!stopTokens.get(pickup).containsAll(fromTokens)) {
+                    continue;
+                }
+                for (int drop = pickup + 1; drop < stopTokens.size(); drop++) {
+                    if (stopTokens.get(drop).containsAll(toTokens) && seats.min(pickup, drop) > 0) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        Set<RouteKey> keys() {
+            Set<RouteKey> keys = new HashSet<>();
+            for (int pickup = 0; pickup < stopTokens.size() - 1; pickup++) {
+                for (int drop = pickup + 1; drop < stopTokens.size(); drop++) {
+                    for (String fromToken : stopTokens.get(pickup)) {
+                        for (String toToken : stopTokens.get(drop)) {
+                            keys.add(new RouteKey(fromToken, toToken));
+                        }
+                    }
+                }
+            }
+            return keys;
+        }
+    }
+}
@@ -1,16 +1,56 @@
 package com.carpool.service;
 
+import com.carpool.config.AdmissionControl;
+import com.carpool.config.CacheConfig;
+import com.carpool.config.ReplicaRoutingDataSource;
+import com.carpool.dto.RideAvailabilityEvent;
+import com.carpool.dto.RideBookingStats;
 import com.carpool.dto.RideCreationDTO;
-import com.carpool.entity.Booking;
+import com.carpool.dto.RideCursor;
+import com.carpool.dto.RidePage;
+import com.carpool.dto.RideSeatInventory;
+import com.carpool.dto.RideSummary;
 import com.carpool.entity.Ride;
 import com.carpool.entity.User;
 import com.carpool.repository.BookingRepository;
 import com.carpool.repository.RideRepository;
+import com.carpool.util.GeoHash;
+import com.carpool.util.Polyline;
+import com.carpool.util.SegmentTree;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Ride Service
@@ -21,15 +61,70 @@ import java.util.List;
 @Service
 public class RideService {
     
+    private static final Logger logger = LoggerFactory.getLogger(RideService.class);
+    
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    
+    private static final int MAX_PAGE_SIZE = 200;
+    
     @Autowired
     private RideRepository rideRepository;
     
+    @Autowired
+    private RideSearchIndex rideSearchIndex;
+    
+    @Autowired
+    private RideSearchCache rideSearchCache;
+    
+    @Autowired
+    private RideGeoIndex rideGeoIndex;
+    
+    @Autowired
+    private RideEventHub rideEventHub;
+    
+    @Autowired
+    private RideRouteIndex rideRouteIndex;
+    
+    @Autowired
+    private CacheManager cacheManager;
+    
+    @Autowired
+    private OptimisticLockRetrier optimisticLockRetrier;
+    
+    @Autowired
+    private AdmissionControl admissionControl;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
     @Autowired
     private UserService userService;
     
     @Autowired
     private BookingRepository bookingRepository;
     
+    // Latest committed version of each ride applied to the in-memory indexes (MAX_VALUE once deleted)
+    private final Map<Long, IndexedVersion> indexedVersions = new ConcurrentHashMap<>();
+    
+    @Value("${app.rides.search.max-flex-days:3}")
+    private int maxSearchFlexDays;
+    
+    @Value("${app.rides.nearby.default-radius-km:5}")
+    private double defaultNearbyRadiusKm;
+    
+    @Value("${app.rides.nearby.max-radius-km:50}")
+    private double maxNearbyRadiusKm;
+    
+    @Value("${app.rides.corridor.default-distance-km:2}")
+    private double defaultCorridorDistanceKm;
+    
+    @Value("${app.rides.corridor.max-distance-km:10}")
+    private double maxCorridorDistanceKm;
+    
+    // Route points closer than this to the line through their neighbours are dropped
+    @Value("${app.rides.route.simplify-tolerance-m:50}")
+    private double routeSimplifyToleranceMeters;
+    
     /**
      * Create a new ride offer
      */
@@ -49,71 +144,338 @@ public class RideService {
         );
         
         // Set optional fields
-        ride.setStops(rideDTO.getStops());
+        setStops(ride, rideDTO.getStops());
         ride.setAdditionalInfo(rideDTO.getAdditionalInfo());
         ride.setInstantBooking(rideDTO.getInstantBooking());
         ride.setAllowSmoking(rideDTO.getAllowSmoking());
         ride.setAllowPets(rideDTO.getAllowPets());
         ride.setAllowFood(rideDTO.getAllowFood());
+        ride.setPickupLatitude(rideDTO.getPickupLatitude());
+        ride.setPickupLongitude(rideDTO.getPickupLongitude());
+        ride.setDropLatitude(rideDTO.getDropLatitude());
+        ride.setDropLongitude(rideDTO.getDropLongitude());
+        
+        if (rideDTO.getRoutePolyline() != null && !rideDTO.getRoutePolyline().isBlank()) {
+            int[] route = decodeRoute(rideDTO.getRoutePolyline().trim());
+            ride.setRoutePolyline(Polyline.encode(Polyline.simplify(route, routeSimplifyToleranceMeters / 1000)));
+            
+            // Without explicit points the ride picks up and drops off at the ends of its route
+            if (ride.getPickupLatitude() == null && ride.getPickupLongitude() == null
+                    && ride.getDropLatitude() == null && ride.getDropLongitude() == null) {
+                ride.setPickupLatitude(route[0] / Polyline.SCALE);
+                ride.setPickupLongitude(route[1] / Polyline.SCALE);
+                ride.setDropLatitude(route[route.length - 2] / Polyline.SCALE);
+                ride.setDropLongitude(route[route.length - 1] / Polyline.SCALE);
+            }
+        }
         
-        return rideRepository.save(ride);
+        // Coordinates are all or nothing: a ride is only found by the nearby search with both points
+        if (!ride.hasCoordinates() && (ride.getPickupLatitude() != null || ride.getPickupLongitude() != null
+                || ride.getDropLatitude() != null || ride.getDropLongitude() != null)) {
+            throw new RuntimeException("Pickup and drop coordinates must be given together");
+        }
+        
+        Ride savedRide = rideRepository.save(ride);
+        reindex(savedRide);
+        return savedRide;
+    }
+    
+    /**
+     * Store the intermediate stops in route order and give every segment of the route the ride's seats
+     */
+    private static void setStops(Ride ride, List<String> locations) {
+        List<String> stops = new ArrayList<>();
+        if (locations != null) {
+            for (String location : locations) {
+                if (location == null || location.isBlank()) {
+                    throw new RuntimeException("Stop locations cannot be blank");
+                }
+                // The stops column lists them comma separated
+                if (location.contains(",")) {
+                    throw new RuntimeException("Stop locations cannot contain commas");
+                }
+                stops.add(location.trim());
+            }
+        }
+        
+        ride.setStops(stops.isEmpty() ? null : String.join(", ", stops));
+        
+        int[] segmentSeats = new int[stops.size() + 1];
+        Arrays.fill(segmentSeats, ride.getAvailableSeats());
+        ride.setSegmentSeats(segmentSeats);
     }
     
     /**
-     * Search for available rides
+     * Load upcoming active rides into the search index once the application is up
      */
-    public List<Ride> searchRides(String from, String to, LocalDate date) {
-        if (from != null && to != null && date != null) {
-            return rideRepository.findAvailableRides(from, to, date);
-        } else {
-            return rideRepository.findAllActiveRides();
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void loadSearchIndex() {
+        try (Stream<Ride> rides = rideRepository.streamUpcomingActiveRides()) {
+            rides.forEach(ride -> {
+                rideSearchIndex.index(ride);
+                rideGeoIndex.index(ride);
+                rideRouteIndex.index(ride);
+                entityManager.detach(ride);
+            });
         }
+        logger.info("Ride search index loaded with {} rides ({} with coordinates, {} with routes)",
+                    rideSearchIndex.size(), rideGeoIndex.size(), rideRouteIndex.size());
     }
     
     /**
-     * Get all active rides
+     * Drop rides that have already departed from the in-memory indexes. Rides only
+     * leave them when their status changes, so without this past rides would stay forever.
      */
-    public List<Ride> getAllActiveRides() {
-        return rideRepository.findAllActiveRides();
+    @Scheduled(cron = "${app.rides.index.prune-cron:0 5 0 * * *}")
+    public void pruneSearchIndex() {
+        LocalDate today = LocalDate.now();
+        int pruned = rideSearchIndex.pruneDepartedBefore(today);
+        int prunedGeo = rideGeoIndex.pruneDepartedBefore(today);
+        int prunedRoutes = rideRouteIndex.pruneDepartedBefore(today);
+        indexedVersions.values().removeIf(indexed -> indexed.departureDate().isBefore(today));
+        logger.info("Pruned departed rides from the search index: {} ({} with coordinates, {} with routes)",
+                    pruned, prunedGeo, prunedRoutes);
     }
     
     /**
-     * Get rides by driver
+     * Search for available rides, one keyset page at a time: rides from
+     * {@code from} to {@code to} departing between {@code earliestTime} and
+     * {@code latestTime} (the whole day when omitted) on the given date or up
+     * to {@code flexDays} days either side of it.
+     * Matches for a search are cached, and so are the ride summaries,
+     * so repeated searches on a popular route do not touch the database.
      */
-    public List<Ride> getRidesByDriver(Long driverId) {
-        User driver = userService.findUserById(driverId);
-        List<Ride> rides = rideRepository.findByDriver(driver);
+    public RidePage searchRides(String from, String to, LocalDate date,
+                                LocalTime earliestTime, LocalTime latestTime, Integer flexDays,
+                                String cursor, Integer limit) {
+        if (from == null || from.isBlank() || to == null || to.isBlank() || date == null) {
+            throw new RuntimeException("From, to and date are required to search rides");
+        }
         
-        // Calculate booking statistics for each ride
-        for (Ride ride : rides) {
-            List<Booking> bookings = bookingRepository.findByRide(ride);
-            
-            // Calculate bookings count
-            int bookingsCount = bookings.size();
-            ride.setBookingsCount(bookingsCount);
+        LocalTime earliest = earliestTime != null ? earliestTime : LocalTime.MIN;
+        LocalTime latest = latestTime != null ? latestTime : LocalTime.MAX;
+        if (earliest.isAfter(latest)) {
+            throw new RuntimeException("Earliest departure time must not be after the latest departure time");
+        }
+        
+        int days = flexDays != null ? flexDays : 0;
+        if (days < 0 || days > maxSearchFlexDays) {
+            throw new RuntimeException("Flex days must be between 0 and " + maxSearchFlexDays);
+        }
+        
+        int pageSize = resolvePageSize(limit);
+        List<RideSearchIndex.Match> matches = rideSearchCache.get(from, to, date, earliest, latest, days, () -> {
+            // One range scan per day, in date order, so the matches stay in departure order
+            List<RideSearchIndex.Match> found = new ArrayList<>();
+            for (LocalDate day = date.minusDays(days); !day.isAfter(date.plusDays(days)); day = day.plusDays(1)) {
+                found.addAll(rideSearchIndex.search(from, to, day.atTime(earliest), day.atTime(latest)));
+            }
+            return List.copyOf(found);
+        });
+        
+        List<Long> rideIds = pageOf(matches, RideCursor.decode(cursor), pageSize + 1);
+        return RidePage.of(findSummariesInOrder(rideIds), pageSize);
+    }
+    
+    /**
+     * Search rides by distance, one keyset page at a time: rides on the given date
+     * that pick up within the radius of the from point and drop off within the
+     * radius of the to point. Answered from the in-memory geo index.
+     */
+    public RidePage findNearbyRides(double fromLatitude, double fromLongitude,
+                                    double toLatitude, double toLongitude, LocalDate date,
+                                    Double radiusKm, String cursor, Integer limit) {
+        if (!GeoHash.isValid(fromLatitude, fromLongitude) || !GeoHash.isValid(toLatitude, toLongitude)) {
+            throw new RuntimeException("Latitude must be between -90 and 90 and longitude between -180 and 180");
+        }
+        
+        double radius = radiusKm != null ? radiusKm : defaultNearbyRadiusKm;
+        if (!(radius > 0) || radius > maxNearbyRadiusKm) {
+            throw new RuntimeException("Radius must be more than 0 and at most " + maxNearbyRadiusKm + " km");
+        }
+        
+        int pageSize = resolvePageSize(limit);
+        List<RideSearchIndex.Match> matches =
+            rideGeoIndex.search(fromLatitude, fromLongitude, toLatitude, toLongitude, radius, date);
+        
+        List<Long> rideIds = pageOf(matches, RideCursor.decode(cursor), pageSize + 1);
+        return RidePage.of(findSummariesInOrder(rideIds), pageSize);
+    }
+    
+    /**
+     * Search rides whose route passes by the passenger, one keyset page at a time:
+     * rides on the given date whose route comes within the distance of the from
+     * point and, further along, of the to point. Answered from the in-memory route index.
+     */
+    public RidePage findCorridorRides(double fromLatitude, double fromLongitude,
+                                      double toLatitude, double toLongitude, LocalDate date,
+                                      Double distanceKm, String cursor, Integer limit) {
+        if (!GeoHash.isValid(fromLatitude, fromLongitude) || !GeoHash.isValid(toLatitude, toLongitude)) {
+            throw new RuntimeException("Latitude must be between -90 and 90 and longitude between -180 and 180");
+        }
+        
+        double distance = distanceKm != null ? distanceKm : defaultCorridorDistanceKm;
+        if (!(distance > 0) || distance > maxCorridorDistanceKm) {
+            throw new RuntimeException("Distance must be more than 0 and at most " + maxCorridorDistanceKm + " km");
+        }
+        
+        int pageSize = resolvePageSize(limit);
+        List<RideSearchIndex.Match> matches =
+            rideRouteIndex.search(fromLatitude, fromLongitude, toLatitude, toLongitude, distance, date);
+        
+        List<Long> rideIds = pageOf(matches, RideCursor.decode(cursor), pageSize + 1);
+        return RidePage.of(findSummariesInOrder(rideIds), pageSize);
+    }
+    
+    /**
+     * Decode a route polyline given by a driver, checking it has at least two valid points
+     */
+    private static int[] decodeRoute(String encoded) {
+        int[] route;
+        try {
+            route = Polyline.decode(encoded);
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Route polyline is not a valid encoded polyline");
+        }
+        
+        if (route.length < 4 || !Polyline.isValid(route)) {
+            throw new RuntimeException("Route polyline must have at least two valid points");
+        }
+        return route;
+    }
+    
+    /**
+     * IDs of up to {@code limit} matches following the cursor (or from the first match when it is null)
+     */
+    private static List<Long> pageOf(List<RideSearchIndex.Match> matches, RideCursor after, int limit) {
+        List<Long> rideIds = new ArrayList<>(Math.min(limit, matches.size()));
+        for (RideSearchIndex.Match match : matches) {
+            if (rideIds.size() == limit) {
+                break;
+            }
+            if (after == null || isAfter(match, after)) {
+                rideIds.add(match.id());
+            }
+        }
+        return rideIds;
+    }
+    
+    private static boolean isAfter(RideSearchIndex.Match match, RideCursor after) {
+        int byDate = match.departureDate().compareTo(after.getDepartureDate());
+        if (byDate != 0) {
+            return byDate > 0;
+        }
+        int byTime = match.departureTime().compareTo(after.getDepartureTime());
+        return byTime > 0 || (byTime == 0 && match.id() > after.getId());
+    }
+    
+    /**
+     * Load ride summaries by ID, keeping the order of the given IDs.
+     * Summaries already in the rides cache are reused; the rest are loaded in one query.
+     */
+    private List<RideSummary> findSummariesInOrder(List<Long> rideIds) {
+        if (rideIds.isEmpty()) {
+            return List.of();
+        }
+        
+        Cache summaryCache = cacheManager.getCache(CacheConfig.RIDES);
+        Map<Long, RideSummary> ridesById = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long rideId : rideIds) {
+            RideSummary cached = summaryCache.get(rideId, RideSummary.class);
+            if (cached != null) {
+                ridesById.put(rideId, cached);
+            } else {
+                missing.add(rideId);
+            }
+        }
+        
+        if (!missing.isEmpty()) {
+            // Searches bypass AdmissionControlFilter; only a cache miss takes a permit for its query.
+            // These may come from a replica: cacheSummary skips any older than the last committed change
+            List<RideSummary> loaded = admissionControl.call(() -> rideRepository.findSummariesByIdIn(missing));
+            for (RideSummary ride : loaded) {
+                cacheSummary(summaryCache, ride);
+                ridesById.put(ride.id(), ride);
+            }
+        }
+        
+        List<RideSummary> rides = new ArrayList<>(rideIds.size());
+        for (Long rideId : rideIds) {
+            RideSummary ride = ridesById.get(rideId);
+            if (ride != null) {
+                rides.add(ride);
+            }
+        }
+        return rides;
+    }
+    
+    /**
+     * Get one keyset page of active rides, ordered by departure
+     */
+    public RidePage getActiveRides(String cursor, Integer limit) {
+        int pageSize = resolvePageSize(limit);
+        // Fetch one extra row to know whether another page follows
+        Pageable page = PageRequest.of(0, pageSize + 1);
+        RideCursor after = RideCursor.decode(cursor);
+        
+        List<RideSummary> rides = after == null
+            ? rideRepository.findActiveRidesPage(page)
+            : rideRepository.findActiveRidesPageAfter(after.getDepartureDate(), after.getDepartureTime(), after.getId(), page);
+        return RidePage.of(rides, pageSize);
+    }
+    
+    /**
+     * Stream every active ride to the consumer straight from a JDBC cursor.
+     * Summaries are not managed entities, so memory stays flat however many match.
+     */
+    @Transactional(readOnly = true)
+    public void streamActiveRides(Consumer<RideSummary> consumer) {
+        try (Stream<RideSummary> rides = rideRepository.streamActiveRides()) {
+            rides.forEach(consumer);
+        }
+    }
+    
+    private static int resolvePageSize(Integer limit) {
+        if (limit == null || limit <= 0) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.min(limit, MAX_PAGE_SIZE);
+    }
+    
+    /**
+     * Get rides by driver, with booking statistics for each ride.
+     * The statistics come from a single grouped query, so the number of
+     * queries does not grow with the number of rides.
+     */
+    @Transactional(readOnly = true)
+    public List<RideSummary> getRidesByDriver(Long driverId) {
+        userService.findUserById(driverId);
+        List<RideSummary> rides = rideRepository.findSummariesByDriverId(driverId);
+        
+        Map<Long, RideBookingStats> statsByRide = bookingRepository.findBookingStatsByDriver(driverId).stream()
+            .collect(Collectors.toMap(RideBookingStats::getRideId, Function.identity()));
+        
+        List<RideSummary> dashboard = new ArrayList<>(rides.size());
+        for (RideSummary ride : rides) {
+            RideBookingStats stats = statsByRide.get(ride.id());
             
-            // Calculate revenue from confirmed bookings
-            double revenue = bookings.stream()
-                .filter(booking -> booking.getStatus() == Booking.BookingStatus.CONFIRMED || 
-                                 booking.getStatus() == Booking.BookingStatus.COMPLETED)
-                .mapToDouble(Booking::getTotalAmount)
-                .sum();
-            ride.setRevenue(revenue);
+            if (stats == null) {
+                dashboard.add(ride.withStats(0, 0.0, ride.availableSeats()));
+                continue;
+            }
             
-            // Set total seats (available + booked)
-            int bookedSeats = bookings.stream()
-                .filter(booking -> booking.getStatus() == Booking.BookingStatus.CONFIRMED || 
-                                 booking.getStatus() == Booking.BookingStatus.COMPLETED)
-                .mapToInt(Booking::getSeatsBooked)
-                .sum();
-            ride.setTotalSeats(ride.getAvailableSeats() + bookedSeats);
+            // Total seats = available + booked (confirmed or completed)
+            dashboard.add(ride.withStats(stats.getBookingsCount().intValue(), stats.getRevenue(),
+                                         ride.availableSeats() + stats.getBookedSeats().intValue()));
         }
         
-        return rides;
+        return dashboard;
     }
     
     /**
-     * Get ride by ID
+     * Get ride by ID. Served from the Hibernate second-level cache when the ride is there.
      */
     public Ride getRideById(Long rideId) {
         return rideRepository.findById(rideId)
@@ -121,39 +483,218 @@ public class RideService {
     }
     
     /**
-     * Update ride status
+     * Get the read model of a ride by ID (cached; evicted whenever the ride changes)
      */
-    public Ride updateRideStatus(Long rideId, Ride.RideStatus status) {
-        Ride ride = getRideById(rideId);
-        ride.setStatus(status);
-        return rideRepository.save(ride);
+    public RideSummary getRideSummary(Long rideId) {
+        Cache summaryCache = cacheManager.getCache(CacheConfig.RIDES);
+        RideSummary cached = summaryCache.get(rideId, RideSummary.class);
+        if (cached != null) {
+            return cached;
+        }
+        
+        // Read from the primary: after a change a replica may still return the old row
+        RideSummary ride = ReplicaRoutingDataSource.readFromPrimary(() -> rideRepository.findSummaryById(rideId))
+            .orElseThrow(() -> new RuntimeException("Ride not found"));
+        cacheSummary(summaryCache, ride);
+        return ride;
+    }
+    
+    /**
+     * Cache a summary read from the database, unless a newer version of the ride
+     * committed after it was read (whose eviction may already have run) or the
+     * ride was deleted. Checked and put under the ride's entry in indexedVersions,
+     * which a committing change updates before its eviction runs.
+     */
+    @SuppressWarnings("unchecked")
+    private void cacheSummary(Cache summaryCache, RideSummary ride) {
+        // The native cache, as the transaction-aware one would defer the put past the check
+        com.github.benmanes.caffeine.cache.Cache<Object, Object> summaries =
+            (com.github.benmanes.caffeine.cache.Cache<Object, Object>) summaryCache.getNativeCache();
+        indexedVersions.compute(ride.id(), (id, committed) -> {
+            if (committed == null || ride.version() == null || ride.version() >= committed.version()) {
+                summaries.put(id, ride);
+            }
+            return committed;
+        });
     }
     
     /**
-     * Update available seats after booking
+     * Update ride status (only the ride's driver may)
      */
-    public Ride updateAvailableSeats(Long rideId, int seatsBooked) {
+    @CacheEvict(cacheNames = CacheConfig.RIDES, key = "#rideId")
+    public Ride updateRideStatus(Long rideId, Ride.RideStatus status, Long driverId) {
+        return optimisticLockRetrier.execute("ride.status", () -> {
+            Ride ride = getRideById(rideId);
+            
+            // Check if the user is the driver of this ride
+            if (!ride.getDriver().getId().equals(driverId)) {
+                throw new RuntimeException("You can only change the status of your own rides");
+            }
+            
+            ride.setStatus(status);
+            Ride savedRide = rideRepository.saveAndFlush(ride);
+            reindex(savedRide);
+            return savedRide;
+        });
+    }
+    
+    /**
+     * Take seats on the segments between two stop positions of a ride (the whole
+     * route when they are null). Nothing is locked while the seats are checked:
+     * the new inventory is written by a single UPDATE guarded by the version it
+     * was computed from, and when another change on the ride committed first,
+     * the inventory is read again and the change re-applied. Concurrent bookings
+     * therefore never oversell a ride and are refused only when seats run out.
+     */
+    @CacheEvict(cacheNames = CacheConfig.RIDES, key = "#rideId")
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public Ride updateAvailableSeats(Long rideId, int seatsBooked, Integer pickupStop, Integer dropStop) {
+        return changeSeats(rideId, -seatsBooked, pickupStop, dropStop);
+    }
+    
+    /**
+     * Return seats on the segments between two stop positions of a ride
+     * (e.g. when a confirmed booking is cancelled), with the same guarded UPDATE
+     */
+    @CacheEvict(cacheNames = CacheConfig.RIDES, key = "#rideId")
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public Ride releaseSeats(Long rideId, int seatsReleased, Integer pickupStop, Integer dropStop) {
+        return changeSeats(rideId, seatsReleased, pickupStop, dropStop);
+    }
+    
+    /**
+     * Add change seats (negative to take them) on a range of segments. The re-read
+     * after a lost update needs READ COMMITTED, so it sees the change that won.
+     */
+    private Ride changeSeats(Long rideId, int change, Integer pickupStop, Integer dropStop) {
         Ride ride = getRideById(rideId);
-        
-        if (ride.getAvailableSeats() < seatsBooked) {
-            throw new RuntimeException("Not enough seats available");
+        // The first attempt starts from the ride as this transaction already has it
+        RideSeatInventory inventory = RideSeatInventory.of(ride);
+        while (true) {
+            if (change < 0 && inventory.status() != Ride.RideStatus.ACTIVE) {
+                throw new RuntimeException("Ride is not open for booking");
+            }
+            
+            SegmentTree seats = new SegmentTree(inventory.seats());
+            int from = pickupStop != null ? pickupStop : 0;
+            int to = dropStop != null ? dropStop : seats.size();
+            if (change < 0 && seats.min(from, to) < -change) {
+                throw new RuntimeException("Not enough seats available");
+            }
+            seats.add(from, to, change);
+            
+            if (rideRepository.updateSeats(rideId, inventory.version(), seats.toArray(), seats.min(0, seats.size())) == 1) {
+                break;
+            }
+            
+            RideSeatInventory current = rideRepository.findSeatInventory(rideId)
+                .orElseThrow(() -> new RuntimeException("Ride not found"));
+            if (current.version().equals(inventory.version())) {
+                // Only a snapshot from before the winning change is visible; let the caller retry
+                throw new OptimisticLockingFailureException("Seats of ride " + rideId + " changed concurrently");
+            }
+            inventory = current;
         }
         
-        ride.setAvailableSeats(ride.getAvailableSeats() - seatsBooked);
-        return rideRepository.save(ride);
+        // Load what was written, for the caller and the indexes
+        entityManager.refresh(ride);
+        reindex(ride);
+        return ride;
+    }
+    
+    /**
+     * Once the change has committed, update the search index, dropping cached
+     * searches only when the ride entered or left the results (created, filled,
+     * reopened or cancelled), and push the ride's seats and status to live
+     * subscribers. A rolled back change never reaches the indexes, and a commit
+     * whose callback runs after that of a newer version of the ride is skipped.
+     */
+    private void reindex(Ride ride) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            applyIndex(ride);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                try {
+                    applyIndex(ride);
+                } catch (RuntimeException e) {
+                    // The change is committed; the next change of the ride or a restart reindexes it
+                    logger.error("Failed to reindex ride {} after commit", ride.getId(), e);
+                }
+            }
+        });
+    }
+    
+    private void applyIndex(Ride ride) {
+        long version = ride.getVersion() != null ? ride.getVersion() : 0;
+        indexedVersions.compute(ride.getId(), (id, indexed) -> {
+            if (indexed != null && indexed.version() > version) {
+                return indexed;
+            }
+            rideGeoIndex.index(ride);
+            rideRouteIndex.index(ride);
+            if (rideSearchIndex.index(ride)) {
+                rideSearchCache.invalidate(ride);
+            }
+            rideEventHub.publish(ride);
+            return new IndexedVersion(version, ride.getDepartureDate());
+        });
+    }
+    
+    private record IndexedVersion(long version, LocalDate departureDate) {}
+    
+    /**
+     * Open a live feed of a ride's seats and status, starting with its current state
+     */
+    public SseEmitter subscribeToRide(Long rideId) {
+        return rideEventHub.subscribeToRide(rideId, () -> {
+            RideSummary ride = cacheManager.getCache(CacheConfig.RIDES).get(rideId, RideSummary.class);
+            if (ride == null) {
+                // Subscriptions bypass AdmissionControlFilter; only a cache miss takes a permit for its query
+                ride = admissionControl.call(() -> getRideSummary(rideId));
+            }
+            return RideAvailabilityEvent.of(ride);
+        });
+    }
+    
+    /**
+     * Open a live feed of seat and status changes of the rides from {@code from}
+     * to {@code to} on the date; clients load the current rides with a search
+     */
+    public SseEmitter subscribeToRoute(String from, String to, LocalDate date) {
+        if (from == null || from.isBlank() || to == null || to.isBlank() || date == null) {
+            throw new RuntimeException("From, to and date are required to follow a route");
+        }
+        return rideEventHub.subscribeToRoute(from, to, date);
     }
     
     /**
      * Delete ride
      */
+    @CacheEvict(cacheNames = CacheConfig.RIDES, key = "#rideId")
     public void deleteRide(Long rideId, Long driverId) {
-        Ride ride = getRideById(rideId);
+        Ride deleted = optimisticLockRetrier.execute("ride.delete", () -> {
+            Ride ride = getRideById(rideId);
+            
+            // Check if the user is the driver of this ride
+            if (!ride.getDriver().getId().equals(driverId)) {
+                throw new RuntimeException("You can only delete your own rides");
+            }
+            
+            rideRepository.delete(ride);
+            rideRepository.flush();
+            return ride;
+        });
         
-        // Check if the user is the driver of this ride
-        if (!ride.getDriver().getId().equals(driverId)) {
-            throw new RuntimeException("You can only delete your own rides");
+        // Nothing read before the delete may be indexed or cached again
+        indexedVersions.put(rideId, new IndexedVersion(Long.MAX_VALUE, deleted.getDepartureDate()));
+        rideGeoIndex.remove(rideId);
+        rideRouteIndex.remove(rideId);
+        if (rideSearchIndex.remove(rideId)) {
+            rideSearchCache.invalidate(deleted);
         }
-        
-        rideRepository.delete(ride);
+        rideEventHub.publishRemoved(deleted);
     }
 }
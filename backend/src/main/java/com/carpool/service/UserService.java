@@ -1,5 +1,7 @@
 package com.carpool.service;
 
+import com.carpool.config.CacheConfig;
+import com.carpool.config.ReplicaRoutingDataSource;
 import com.carpool.dto.UserLoginDTO;
 import com.carpool.dto.UserRegistrationDTO;
 import com.carpool.entity.User;
@@ -7,12 +9,21 @@ import com.carpool.exception.BusinessException;
 import com.carpool.exception.ResourceNotFoundException;
 import com.carpool.repository.UserRepository;
 import com.carpool.util.ValidationUtil;
+import org.hibernate.exception.ConstraintViolationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.Optional;
 
@@ -32,36 +43,71 @@ public class UserService {
     private UserRepository userRepository;
     
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordHasher passwordHasher;
+    
+    @Autowired
+    private RegisteredContacts registeredContacts;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Autowired
+    private CacheManager cacheManager;
+    
+    private TransactionTemplate transactionTemplate;
+    
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
     
     /**
-     * Register a new user
+     * Register a new user. Runs outside a transaction so no connection is held while
+     * the password is hashed; the duplicate check and the insert each take a short one.
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public User registerUser(UserRegistrationDTO userDTO) {
         logger.info("Attempting to register user with email: {}", userDTO.getEmail());
         
         // Validate input
         validateUserRegistration(userDTO);
         
-        // Check if user already exists
-        if (userRepository.existsByEmail(userDTO.getEmail())) {
-            throw new BusinessException("Email already exists");
-        }
-        
-        if (userRepository.existsByPhone(userDTO.getPhone())) {
-            throw new BusinessException("Phone number already exists");
+        String email = userDTO.getEmail().toLowerCase().trim();
+        String phone = ValidationUtil.stripWhitespace(userDTO.getPhone());
+        
+        // Only a possible duplicate costs a lookup; a new email and phone go straight to the insert
+        // without taking a connection for the check
+        boolean checkEmail = registeredContacts.mightHaveEmail(email);
+        boolean checkPhone = registeredContacts.mightHavePhone(phone);
+        if (checkEmail || checkPhone) {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (checkEmail && userRepository.existsByEmail(email)) {
+                    throw new BusinessException("Email already exists");
+                }
+                
+                if (checkPhone && userRepository.existsByPhone(phone)) {
+                    throw new BusinessException("Phone number already exists");
+                }
+            });
         }
         
         // Create new user with hashed password
         User user = new User(
             ValidationUtil.sanitizeText(userDTO.getFirstName()),
             ValidationUtil.sanitizeText(userDTO.getLastName()),
-            userDTO.getEmail().toLowerCase().trim(),
-            userDTO.getPhone().replaceAll("\\s", ""),
-            passwordEncoder.encode(userDTO.getPassword())
+            email,
+            phone,
+            passwordHasher.encode(userDTO.getPassword())
         );
         
-        User savedUser = userRepository.save(user);
+        // The unique constraints catch a concurrent signup with the same email or phone
+        User savedUser;
+        try {
+            savedUser = userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            throw new BusinessException(duplicateMessage(e), e);
+        }
+        registeredContacts.add(email, phone);
         logger.info("User registered successfully with ID: {}", savedUser.getId());
         
         return savedUser;
@@ -93,8 +139,29 @@ public class UserService {
     }
     
     /**
-     * Login user
+     * Describe which unique constraint a failed insert violated
      */
+    private String duplicateMessage(DataIntegrityViolationException e) {
+        String constraint = e.getCause() instanceof ConstraintViolationException violation
+            ? violation.getConstraintName()
+            : null;
+        String detail = (constraint != null ? constraint : String.valueOf(e.getMostSpecificCause().getMessage()))
+            .toLowerCase();
+        
+        if (detail.contains(User.PHONE_CONSTRAINT)) {
+            return "Phone number already exists";
+        }
+        if (detail.contains(User.EMAIL_CONSTRAINT)) {
+            return "Email already exists";
+        }
+        return "Email or phone number already exists";
+    }
+    
+    /**
+     * Login user. Like registration it runs outside a transaction: the lookup and a
+     * re-hashed password's write each take a short one, and the hashing none.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public User loginUser(UserLoginDTO loginDTO) {
         logger.info("Attempting to login user with email: {}", loginDTO.getEmail());
         
@@ -107,7 +174,9 @@ public class UserService {
             throw new BusinessException("Password is required");
         }
         
-        Optional<User> userOptional = userRepository.findByEmail(loginDTO.getEmail().toLowerCase().trim());
+        // Read from the primary, so a login right after registering finds the new account
+        Optional<User> userOptional = transactionTemplate.execute(
+            status -> userRepository.findByEmail(loginDTO.getEmail().toLowerCase().trim()));
         
         if (userOptional.isEmpty()) {
             throw new BusinessException("Invalid email or password");
@@ -121,20 +190,42 @@ public class UserService {
         }
         
         // Verify password
-        if (!passwordEncoder.matches(loginDTO.getPassword(), user.getPassword())) {
+        if (!passwordHasher.matches(loginDTO.getPassword(), user.getPassword())) {
             throw new BusinessException("Invalid email or password");
         }
         
+        // Re-hash with the configured cost while the raw password is at hand
+        if (passwordHasher.needsRehash(user.getPassword())) {
+            upgradePasswordHash(user, passwordHasher.encode(loginDTO.getPassword()));
+        }
+        
         logger.info("User logged in successfully: {}", user.getId());
         return user;
     }
     
     /**
-     * Find user by ID
+     * Store a stronger hash of the same password, unless the password changed since it was read
+     */
+    private void upgradePasswordHash(User user, String upgradedHash) {
+        if (userRepository.updatePasswordHash(user.getId(), user.getPassword(), upgradedHash) == 0) {
+            return;
+        }
+        user.setPassword(upgradedHash);
+        Cache users = cacheManager.getCache(CacheConfig.USERS);
+        if (users != null) {
+            users.evict(user.getId());
+        }
+        logger.info("Password hash upgraded for user: {}", user.getId());
+    }
+    
+    /**
+     * Find user by ID (cached; evicted whenever the user is updated)
      */
+    @Cacheable(cacheNames = CacheConfig.USERS, key = "#id")
     @Transactional(readOnly = true)
     public User findUserById(Long id) {
-        return userRepository.findById(id)
+        // Filling the cache: read from the primary, a replica may not have the last change yet
+        return ReplicaRoutingDataSource.readFromPrimary(() -> userRepository.findById(id))
             .orElseThrow(() -> new ResourceNotFoundException("User not found with ID: " + id));
     }
     
@@ -147,33 +238,10 @@ public class UserService {
             .orElseThrow(() -> new ResourceNotFoundException("User not found with email: " + email));
     }
     
-    /**
-     * Update user rating after a trip
-     */
-    public User updateUserRating(Long userId, double newRating) {
-        if (!ValidationUtil.isValidRange(newRating, 1.0, 5.0)) {
-            throw new BusinessException("Rating must be between 1.0 and 5.0");
-        }
-        
-        User user = findUserById(userId);
-        
-        // Calculate weighted average rating
-        double currentRating = user.getRating() != null ? user.getRating() : 0.0;
-        int totalTrips = user.getTotalTrips();
-        
-        double updatedRating = ((currentRating * totalTrips) + newRating) / (totalTrips + 1);
-        user.setRating(Math.round(updatedRating * 10.0) / 10.0); // Round to 1 decimal place
-        user.setTotalTrips(totalTrips + 1);
-        
-        User savedUser = userRepository.save(user);
-        logger.info("Updated rating for user {}: {} (total trips: {})", userId, savedUser.getRating(), savedUser.getTotalTrips());
-        
-        return savedUser;
-    }
-    
     /**
      * Deactivate user account
      */
+    @CacheEvict(cacheNames = CacheConfig.USERS, key = "#userId")
     public void deactivateUser(Long userId) {
         User user = findUserById(userId);
         user.setIsActive(false);
@@ -0,0 +1,109 @@
+package com.carpool.util;
+
+/**
+ * Geo Hash
+ *
+ * Grid cells for the in-memory geo index. Latitude is cut into 2^12 and longitude
+ * into 2^13 equal bands and the two band numbers are bit-interleaved into one
+ * long: the cells of a 5-character geohash, about 4.9 km square at the equator.
+ * Also great-circle (haversine) distances.
+ */
+public final class GeoHash {
+
+    public static final double EARTH_RADIUS_KM = 6371.0088;
+
+    public static final double KM_PER_DEGREE = Math.toRadians(1) * EARTH_RADIUS_KM;
+
+    private static final int LAT_BITS = 12;
+
+    private static final int LNG_BITS = 13;
+
+    private static final int LAT_BANDS = 1 << LAT_BITS;
+
+    private static final int LNG_BANDS = 1 << LNG_BITS;
+
+    private GeoHash() {}
+
+    /**
+     * Whether the coordinates are a valid latitude and longitude
+     */
+    public static boolean isValid(double latitude, double longitude) {
+        return latitude >= -90 && latitude <= 90 && longitude >= -180 && longitude <= 180;
+    }
+
+    /**
+     * The cell containing a point
+     */
+    public static long cell(double latitude, double longitude) {
+        return cell(latBand(latitude), lngBand(longitude));
+    }
+
+    /**
+     * Every cell overlapping the bounding box of a circle, so any point within
+     * {@code radiusKm} of the centre lies in one of them. Wraps around the antimeridian.
+     */
+    public static long[] cellsWithin(double latitude, double longitude, double radiusKm) {
+        double latSpan = Math.toDegrees(radiusKm / EARTH_RADIUS_KM);
+        int latFrom = latBand(latitude - latSpan);
+        int latTo = latBand(latitude + latSpan);
+
+        // Longitude degrees shrink towards the poles; size the box at its widest latitude
+        double widestLatitude = Math.min(90, Math.abs(latitude) + latSpan);
+        double cos = Math.cos(Math.toRadians(widestLatitude));
+        int lngFrom;
+        int lngCount;
+        if (cos < 1e-9 || latSpan / cos >= 180) {
+            lngFrom = 0;
+            lngCount = LNG_BANDS;
+        } else {
+            double lngSpan = latSpan / cos;
+            lngFrom = lngBand(longitude - lngSpan);
+            lngCount = Math.min(LNG_BANDS, Math.floorMod(lngBand(longitude + lngSpan) - lngFrom, LNG_BANDS) + 1);
+        }
+
+        long[] cells = new long[(latTo - latFrom + 1) * lngCount];
+        int i = 0;
+        for (int lat = latFrom; lat <= latTo; lat++) {
+            for (int n = 0; n < lngCount; n++) {
+                cells[i++] = cell(lat, (lngFrom + n) % LNG_BANDS);
+            }
+        }
+        return cells;
+    }
+
+    /**
+     * Great-circle distance between two points in kilometres
+     */
+    public static double distanceKm(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+            + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+            * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    private static int latBand(double latitude) {
+        double clamped = Math.max(-90, Math.min(90, latitude));
+        return Math.min(LAT_BANDS - 1, (int) ((clamped + 90) / 180 * LAT_BANDS));
+    }
+
+    private static int lngBand(double longitude) {
+        double wrapped = ((longitude + 180) % 360 + 360) % 360;
+        return Math.min(LNG_BANDS - 1, (int) (wrapped / 360 * LNG_BANDS));
+    }
+
+    /**
+     * Interleave the band numbers, longitude first, as a geohash does
+     */
+    private static long cell(int latBand, int lngBand) {
+        long cell = 0;
+        for (int bit = LNG_BITS - 1; bit >= 0; bit--) {
+            cell = (cell << 1) | ((lngBand >>> bit) & 1);
+            if (bit > 0) {
+                cell = (cell << 1) | ((latBand >>> (bit - 1)) & 1);
+            }
+        }
+        return cell;
+    }
+}
@@ -0,0 +1,81 @@
+package com.carpool.util;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Location Normalizer
+ *
+ * Normalizes free-text locations so that equivalent spellings
+ * ("Pune Station", "  pune   station ", "Puné Station") map to the same search key.
+ */
+public class LocationNormalizer {
+
+    /**
+     * Lower-cases the location, strips diacritics and collapses every run of
+     * non letter/digit characters into a single space
+     */
+    public static String normalize(String location) {
+        if (location == null) {
+            return "";
+        }
+
+        String lower = location.toLowerCase(Locale.ROOT);
+        if (!isAscii(lower)) {
+            // Split accented letters into base letter + combining mark; the marks are dropped below
+            lower = Normalizer.normalize(lower, Normalizer.Form.NFD);
+        }
+
+        StringBuilder normalized = new StringBuilder(lower.length());
+        boolean pendingSpace = false;
+
+        for (int i = 0; i < lower.length(); i++) {
+            char c = lower.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (Character.isLetterOrDigit(c)) {
+                if (pendingSpace && normalized.length() > 0) {
+                    normalized.append(' ');
+                }
+                normalized.append(c);
+                pendingSpace = false;
+            } else {
+                pendingSpace = true;
+            }
+        }
+
+        return normalized.toString();
+    }
+
+    /**
+     * Splits a location into its normalized tokens
+     */
+    public static List<String> tokenize(String location) {
+        String normalized = normalize(location);
+        List<String> tokens = new ArrayList<>();
+
+        int start = 0;
+        while (start < normalized.length()) {
+            int end = normalized.indexOf(' ', start);
+            if (end < 0) {
+                end = normalized.length();
+            }
+            tokens.add(normalized.substring(start, end));
+            start = end + 1;
+        }
+
+        return tokens;
+    }
+
+    private static boolean isAscii(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > 0x7F) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,202 @@
+package com.carpool.util;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Polyline
+ *
+ * Ride routes in the encoded polyline format (the one map APIs return:
+ * coordinates at 1e-5 degree precision, delta and varint encoded as
+ * printable ASCII, a few bytes per point). Decoded points are kept as a flat
+ * int array of latitude/longitude pairs in 1e-5 degrees.
+ */
+public final class Polyline {
+
+    public static final double SCALE = 1e5;
+
+    private Polyline() {}
+
+    /**
+     * Decode an encoded polyline into [lat0, lng0, lat1, lng1, ...] in 1e-5 degrees
+     */
+    public static int[] decode(String encoded) {
+        int[] points = new int[Math.max(8, encoded.length() / 2)];
+        int count = 0;
+        int[] cursor = {0};
+        int latitude = 0;
+        int longitude = 0;
+
+        while (cursor[0] < encoded.length()) {
+            latitude += decodeValue(encoded, cursor);
+            longitude += decodeValue(encoded, cursor);
+
+            if (count + 2 > points.length) {
+                int[] grown = new int[points.length * 2];
+                System.arraycopy(points, 0, grown, 0, count);
+                points = grown;
+            }
+            points[count++] = latitude;
+            points[count++] = longitude;
+        }
+
+        int[] result = new int[count];
+        System.arraycopy(points, 0, result, 0, count);
+        return result;
+    }
+
+    /**
+     * Encode [lat0, lng0, lat1, lng1, ...] in 1e-5 degrees as a polyline
+     */
+    public static String encode(int[] points) {
+        StringBuilder encoded = new StringBuilder(points.length * 3);
+        int previousLatitude = 0;
+        int previousLongitude = 0;
+        for (int i = 0; i < points.length; i += 2) {
+            encodeValue(points[i] - previousLatitude, encoded);
+            encodeValue(points[i + 1] - previousLongitude, encoded);
+            previousLatitude = points[i];
+            previousLongitude = points[i + 1];
+        }
+        return encoded.toString();
+    }
+
+    /**
+     * Whether every point is a valid latitude and longitude
+     */
+    public static boolean isValid(int[] points) {
+        for (int i = 0; i < points.length; i += 2) {
+            if (!GeoHash.isValid(points[i] / SCALE, points[i + 1] / SCALE)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Douglas-Peucker simplification: drop points that lie within
+     * {@code toleranceKm} of the line through the points kept around them.
+     * The first and last points are always kept.
+     */
+    public static int[] simplify(int[] points, double toleranceKm) {
+        int count = points.length / 2;
+        if (count <= 2) {
+            return points;
+        }
+
+        boolean[] keep = new boolean[count];
+        keep[0] = true;
+        keep[count - 1] = true;
+
+        Deque<int[]> ranges = new ArrayDeque<>();
+        ranges.push(new int[] {0, count - 1});
+        while (!ranges.isEmpty()) {
+            int[] range = ranges.pop();
+            int first = range[0];
+            int last = range[1];
+
+            int farthest = -1;
+            double farthestKm = toleranceKm;
+            for (int i = first + 1; i < last; i++) {
+                double km = distanceToSegmentKm(points[2 * i] / SCALE, points[2 * i + 1] / SCALE, points, first, last);
+                if (km > farthestKm) {
+                    farthest = i;
+                    farthestKm = km;
+                }
+            }
+
+            if (farthest >= 0) {
+                keep[farthest] = true;
+                ranges.push(new int[] {first, farthest});
+                ranges.push(new int[] {farthest, last});
+            }
+        }
+
+        int kept = 0;
+        for (boolean k : keep) {
+            if (k) {
+                kept++;
+            }
+        }
+        int[] simplified = new int[kept * 2];
+        int j = 0;
+        for (int i = 0; i < count; i++) {
+            if (keep[i]) {
+                simplified[j++] = points[2 * i];
+                simplified[j++] = points[2 * i + 1];
+            }
+        }
+        return simplified;
+    }
+
+    /**
+     * Position of the point of segment (from, to) closest to the given point, from 0 (at
+     * {@code from}) to 1 (at {@code to})
+     */
+    public static double closestFraction(double latitude, double longitude, int[] points, int from, int to) {
+        double[] segment = project(latitude, longitude, points, from, to);
+        return fraction(segment);
+    }
+
+    /**
+     * Distance in kilometres from a point to segment (from, to) of the polyline
+     */
+    public static double distanceToSegmentKm(double latitude, double longitude, int[] points, int from, int to) {
+        double[] segment = project(latitude, longitude, points, from, to);
+        double t = fraction(segment);
+        double x = segment[0] + t * (segment[2] - segment[0]);
+        double y = segment[1] + t * (segment[3] - segment[1]);
+        return Math.sqrt(x * x + y * y);
+    }
+
+    /**
+     * Segment end points in kilometres east and north of the given point. A flat
+     * projection, accurate over the few kilometres a corridor or tolerance spans.
+     */
+    private static double[] project(double latitude, double longitude, int[] points, int from, int to) {
+        double kmPerLng = GeoHash.KM_PER_DEGREE * Math.cos(Math.toRadians(latitude));
+        return new double[] {
+            (points[2 * from + 1] / SCALE - longitude) * kmPerLng,
+            (points[2 * from] / SCALE - latitude) * GeoHash.KM_PER_DEGREE,
+            (points[2 * to + 1] / SCALE - longitude) * kmPerLng,
+            (points[2 * to] / SCALE - latitude) * GeoHash.KM_PER_DEGREE
+        };
+    }
+
+    private static double fraction(double[] segment) {
+        double dx = segment[2] - segment[0];
+        double dy = segment[3] - segment[1];
+        double lengthSquared = dx * dx + dy * dy;
+        if (lengthSquared == 0) {
+            return 0;
+        }
+        return Math.max(0, Math.min(1, -(segment[0] * dx + segment[1] * dy) / lengthSquared));
+    }
+
+    private static int decodeValue(String encoded, int[] cursor) {
+        int result = 0;
+        int shift = 0;
+        int chunk;
+        do {
+            if (cursor[0] >= encoded.length() || shift > 30) {
+                throw new IllegalArgumentException("Truncated or malformed polyline");
+            }
+            chunk = encoded.charAt(cursor[0]++) - 63;
+            if (chunk < 0 || chunk > 63) {
+                throw new IllegalArgumentException("Invalid polyline character at " + (cursor[0] - 1));
+            }
+            result |= (chunk & 0x1f) << shift;
+            shift += 5;
+        } while (chunk >= 0x20);
+        return (result & 1) != 0 ? ~(result >> 1) : result >> 1;
+    }
+
+    private static void encodeValue(int value, StringBuilder encoded) {
+        int shifted = value < 0 ? ~(value << 1) : value << 1;
+        while (shifted >= 0x20) {
+            encoded.append((char) ((0x20 | (shifted & 0x1f)) + 63));
+            shifted >>>= 5;
+        }
+        encoded.append((char) (shifted + 63));
+    }
+}
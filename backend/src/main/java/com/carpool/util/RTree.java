@@ -0,0 +1,333 @@
+package com.carpool.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * R-Tree
+ *
+ * A two-dimensional R-tree (Guttman, quadratic split) of values with bounding
+ * rectangles. Supports insert, remove and rectangle search. Not thread-safe;
+ * callers guard it with their own lock.
+ */
+public final class RTree<T> {
+
+    private static final int MAX_ENTRIES = 16;
+
+    private static final int MIN_ENTRIES = 6;
+
+    private Node<T> root = new Node<>(true);
+
+    private int size;
+
+    /**
+     * Add a value with the given bounding rectangle
+     */
+    public void insert(double minX, double minY, double maxX, double maxY, T value) {
+        insert(new Entry<>(minX, minY, maxX, maxY, null, value));
+        size++;
+    }
+
+    /**
+     * Remove a value inserted with the given bounding rectangle.
+     * Returns false when it is not in the tree.
+     */
+    public boolean remove(double minX, double minY, double maxX, double maxY, T value) {
+        Entry<T> target = new Entry<>(minX, minY, maxX, maxY, null, value);
+        List<Entry<T>> orphans = new ArrayList<>();
+        if (!remove(root, target, orphans)) {
+            return false;
+        }
+
+        if (!root.leaf && root.entries.size() == 1) {
+            root = root.entries.get(0).child;
+        } else if (!root.leaf && root.entries.isEmpty()) {
+            root = new Node<>(true);
+        }
+        // Entries of underfull nodes go back in from the top
+        for (Entry<T> orphan : orphans) {
+            insert(orphan);
+        }
+        size--;
+        return true;
+    }
+
+    /**
+     * Pass every value whose rectangle intersects the given one to the consumer
+     */
+    public void search(double minX, double minY, double maxX, double maxY, Consumer<T> consumer) {
+        search(root, minX, minY, maxX, maxY, consumer);
+    }
+
+    /**
+     * Number of values in the tree
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    private void insert(Entry<T> entry) {
+        Entry<T> sibling = insert(root, entry);
+        if (sibling != null) {
+            Node<T> newRoot = new Node<>(false);
+            newRoot.entries.add(Entry.of(root));
+            newRoot.entries.add(sibling);
+            root = newRoot;
+        }
+    }
+
+    /**
+     * Insert below the node; returns the entry of the new sibling when the node was split
+     */
+    private Entry<T> insert(Node<T> node, Entry<T> entry) {
+        if (node.leaf) {
+            node.entries.add(entry);
+        } else {
+            Entry<T> target = chooseSubtree(node, entry);
+            Entry<T> sibling = insert(target.child, entry);
+            if (sibling != null) {
+                target.fit(target.child);
+                node.entries.add(sibling);
+            } else {
+                target.include(entry);
+            }
+        }
+        return node.entries.size() > MAX_ENTRIES ? split(node) : null;
+    }
+
+    private Entry<T> chooseSubtree(Node<T> node, Entry<T> entry) {
+        Entry<T> best = null;
+        double bestEnlargement = Double.POSITIVE_INFINITY;
+        double bestArea = Double.POSITIVE_INFINITY;
+        for (Entry<T> candidate : node.entries) {
+            double area = candidate.area();
+            double enlargement = candidate.areaWith(entry) - area;
+            if (enlargement < bestEnlargement || (enlargement == bestEnlargement && area < bestArea)) {
+                best = candidate;
+                bestEnlargement = enlargement;
+                bestArea = area;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Quadratic split: keep one group in the node, move the other to a new sibling
+     */
+    private Entry<T> split(Node<T> node) {
+        List<Entry<T>> remaining = new ArrayList<>(node.entries);
+
+        // Seeds: the pair that would waste the most area together
+        int seedA = 0;
+        int seedB = 1;
+        double worstWaste = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < remaining.size(); i++) {
+            for (int j = i + 1; j < remaining.size(); j++) {
+                Entry<T> a = remaining.get(i);
+                Entry<T> b = remaining.get(j);
+                double waste = a.areaWith(b) - a.area() - b.area();
+                if (waste > worstWaste) {
+                    worstWaste = waste;
+                    seedA = i;
+                    seedB = j;
+                }
+            }
+        }
+
+        Node<T> sibling = new Node<>(node.leaf);
+        node.entries.clear();
+        Entry<T> a = remaining.get(seedA);
+        Entry<T> b = remaining.get(seedB);
+        remaining.remove(seedB);
+        remaining.remove(seedA);
+        node.entries.add(a);
+        sibling.entries.add(b);
+        Entry<T> boundsA = a.copyBounds();
+        Entry<T> boundsB = b.copyBounds();
+
+        while (!remaining.isEmpty()) {
+            // A group that needs every remaining entry to reach the minimum takes them all
+            if (node.entries.size() + remaining.size() <= MIN_ENTRIES) {
+                node.entries.addAll(remaining);
+                break;
+            }
+            if (sibling.entries.size() + remaining.size() <= MIN_ENTRIES) {
+                sibling.entries.addAll(remaining);
+                break;
+            }
+
+            // Next: the entry with the strongest preference for one group
+            int next = 0;
+            double strongest = -1;
+            for (int i = 0; i < remaining.size(); i++) {
+                Entry<T> entry = remaining.get(i);
+                double preference = Math.abs((boundsA.areaWith(entry) - boundsA.area())
+                                             - (boundsB.areaWith(entry) - boundsB.area()));
+                if (preference > strongest) {
+                    strongest = preference;
+                    next = i;
+                }
+            }
+
+            Entry<T> entry = remaining.remove(next);
+            double enlargementA = boundsA.areaWith(entry) - boundsA.area();
+            double enlargementB = boundsB.areaWith(entry) - boundsB.area();
+            boolean toA;
+            if (enlargementA != enlargementB) {
+                toA = enlargementA < enlargementB;
+            } else if (boundsA.area() != boundsB.area()) {
+                toA = boundsA.area() < boundsB.area();
+            } else {
+                toA = node.entries.size() <= sibling.entries.size();
+            }
+
+            if (toA) {
+                node.entries.add(entry);
+                boundsA.include(entry);
+            } else {
+                sibling.entries.add(entry);
+                boundsB.include(entry);
+            }
+        }
+        return Entry.of(sibling);
+    }
+
+    private boolean remove(Node<T> node, Entry<T> target, List<Entry<T>> orphans) {
+        if (node.leaf) {
+            for (int i = 0; i < node.entries.size(); i++) {
+                Entry<T> entry = node.entries.get(i);
+                if (entry.sameBounds(target) && entry.value.equals(target.value)) {
+                    node.entries.remove(i);
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        for (int i = 0; i < node.entries.size(); i++) {
+            Entry<T> entry = node.entries.get(i);
+            if (entry.contains(target) && remove(entry.child, target, orphans)) {
+                if (entry.child.entries.size() < MIN_ENTRIES) {
+                    node.entries.remove(i);
+                    collectValues(entry.child, orphans);
+                } else {
+                    entry.fit(entry.child);
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static <T> void collectValues(Node<T> node, List<Entry<T>> values) {
+        if (node.leaf) {
+            values.addAll(node.entries);
+            return;
+        }
+        for (Entry<T> entry : node.entries) {
+            collectValues(entry.child, values);
+        }
+    }
+
+    private static <T> void search(Node<T> node, double minX, double minY, double maxX, double maxY,
+                                   Consumer<T> consumer) {
+        for (Entry<T> entry : node.entries) {
+            if (entry.minX > maxX || entry.maxX < minX || entry.minY > maxY || entry.maxY < minY) {
+                continue;
+            }
+            if (node.leaf) {
+                consumer.accept(entry.value);
+            } else {
+                search(entry.child, minX, minY, maxX, maxY, consumer);
+            }
+        }
+    }
+
+    private static final class Node<T> {
+
+        private final boolean leaf;
+
+        private final List<Entry<T>> entries = new ArrayList<>(MAX_ENTRIES + 1);
+
+        private Node(boolean leaf) {
+            this.leaf = leaf;
+        }
+    }
+
+    /**
+     * A rectangle with either a child node (inner nodes) or a value (leaves)
+     */
+    private static final class Entry<T> {
+
+        private double minX;
+
+        private double minY;
+
+        private double maxX;
+
+        private double maxY;
+
+        private final Node<T> child;
+
+        private final T value;
+
+        private Entry(double minX, double minY, double maxX, double maxY, Node<T> child, T value) {
+            this.minX = minX;
+            this.minY = minY;
+            this.maxX = maxX;
+            this.maxY = maxY;
+            this.child = child;
+            this.value = value;
+        }
+
+        static <T> Entry<T> of(Node<T> node) {
+            Entry<T> entry = new Entry<>(Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY,
+                                         Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY, node, null);
+            entry.fit(node);
+            return entry;
+        }
+
+        Entry<T> copyBounds() {
+            return new Entry<>(minX, minY, maxX, maxY, null, null);
+        }
+
+        void fit(Node<T> node) {
+            minX = Double.POSITIVE_INFINITY;
+            minY = Double.POSITIVE_INFINITY;
+            maxX = Double.NEGATIVE_INFINITY;
+            maxY = Double.NEGATIVE_INFINITY;
+            for (Entry<T> entry : node.entries) {
+                include(entry);
+            }
+        }
+
+        void include(Entry<T> other) {
+            minX = Math.min(minX, other.minX);
+            minY = Math.min(minY, other.minY);
+            maxX = Math.max(maxX, other.maxX);
+            maxY = Math.max(maxY, other.maxY);
+        }
+
+        double area() {
+            return (maxX - minX) * (maxY - minY);
+        }
+
+        double areaWith(Entry<T> other) {
+            return (Math.max(maxX, other.maxX) - Math.min(minX, other.minX))
+                * (Math.max(maxY, other.maxY) - Math.min(minY, other.minY));
+        }
+
+        boolean contains(Entry<T> other) {
+            return minX <= other.minX && minY <= other.minY && maxX >= other.maxX && maxY >= other.maxY;
+        }
+
+        boolean sameBounds(Entry<T> other) {
+            return minX == other.minX && minY == other.minY && maxX == other.maxX && maxY == other.maxY;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.carpool.util;
+
+/**
+ * Segment Tree
+ *
+ * Range-minimum segment tree with lazy range add over an int array, used for
+ * per-segment seat inventories: seats left on a sub-route are the minimum
+ * over its segments, and booking or releasing seats adds to a range of them.
+ * Both take O(log n). Not thread-safe.
+ */
+public final class SegmentTree {
+
+    private final int size;
+
+    private final int[] min;
+
+    private final int[] pending;
+
+    public SegmentTree(int[] values) {
+        if (values.length == 0) {
+            throw new IllegalArgumentException("A segment tree needs at least one value");
+        }
+        size = values.length;
+        min = new int[4 * size];
+        pending = new int[4 * size];
+        build(1, 0, size - 1, values);
+    }
+
+    /**
+     * Number of values
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Minimum of the values in [from, to)
+     */
+    public int min(int from, int to) {
+        checkRange(from, to);
+        return min(1, 0, size - 1, from, to - 1);
+    }
+
+    /**
+     * Add delta to every value in [from, to)
+     */
+    public void add(int from, int to, int delta) {
+        checkRange(from, to);
+        add(1, 0, size - 1, from, to - 1, delta);
+    }
+
+    /**
+     * The current values
+     */
+    public int[] toArray() {
+        int[] values = new int[size];
+        collect(1, 0, size - 1, 0, values);
+        return values;
+    }
+
+    private void build(int node, int low, int high, int[] values) {
+        if (low == high) {
+            min[node] = values[low];
+            return;
+        }
+        int middle = (low + high) >>> 1;
+        build(2 * node, low, middle, values);
+        build(2 * node + 1, middle + 1, high, values);
+        min[node] = Math.min(min[2 * node], min[2 * node + 1]);
+    }
+
+    private int min(int node, int low, int high, int from, int to) {
+        if (from <= low && high <= to) {
+            return min[node];
+        }
+        int middle = (low + high) >>> 1;
+        int result = Integer.MAX_VALUE;
+        if (from <= middle) {
+            result = Math.min(result, min(2 * node, low, middle, from, to));
+        }
+        if (to > middle) {
+            result = Math.min(result, min(2 * node + 1, middle + 1, high, from, to));
+        }
+        // A range add pending on this node applies to everything below it
+        return result + pending[node];
+    }
+
+    private void add(int node, int low, int high, int from, int to, int delta) {
+        if (from <= low && high <= to) {
+            min[node] += delta;
+            pending[node] += delta;
+            return;
+        }
+        int middle = (low + high) >>> 1;
+        if (from <= middle) {
+            add(2 * node, low, middle, from, to, delta);
+        }
+        if (to > middle) {
+            add(2 * node + 1, middle + 1, high, from, to, delta);
+        }
+        min[node] = Math.min(min[2 * node], min[2 * node + 1]) + pending[node];
+    }
+
+    private void collect(int node, int low, int high, int offset, int[] values) {
+        if (low == high) {
+            values[low] = min[node] + offset;
+            return;
+        }
+        int middle = (low + high) >>> 1;
+        collect(2 * node, low, middle, offset + pending[node], values);
+        collect(2 * node + 1, middle + 1, high, offset + pending[node], values);
+    }
+
+    private void checkRange(int from, int to) {
+        if (from < 0 || to > size || from >= to) {
+            throw new IndexOutOfBoundsException("Range [" + from + ", " + to + ") of " + size);
+        }
+    }
+}
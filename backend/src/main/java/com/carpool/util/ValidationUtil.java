@@ -1,65 +1,251 @@
 package com.carpool.util;
 
-import java.util.regex.Pattern;
-
 /**
  * Validation Utility
  * 
  * Provides common validation and sanitization methods.
+ * Each check scans its input once, character by character, and allocates
+ * nothing when the input is already clean (no regex, no intermediate strings).
  */
 public class ValidationUtil {
 
-    private static final Pattern EMAIL_PATTERN = Pattern.compile(
-        "^[a-zA-Z0-9_+&*-]+(?:\\.[a-zA-Z0-9_+&*-]+)*@(?:[a-zA-Z0-9-]+\\.)+[a-zA-Z]{2,7}$"
-    );
+    // Characters stripped by sanitizeText: <>"'%;()&+
+    private static final boolean[] UNSAFE_CHARS = new boolean[128];
 
-    private static final Pattern PHONE_PATTERN = Pattern.compile(
-        "^[+]?[0-9]{10,15}$"
-    );
+    // Characters allowed in the local part of an email, besides letters and digits: _+&*-
+    private static final boolean[] EMAIL_LOCAL_CHARS = new boolean[128];
 
-    private static final Pattern CAR_NUMBER_PATTERN = Pattern.compile(
-        "^[A-Z]{2}[0-9]{1,2}[A-Z]{1,3}[0-9]{1,4}$"
-    );
+    static {
+        for (char c : "<>\"'%;()&+".toCharArray()) {
+            UNSAFE_CHARS[c] = true;
+        }
+        for (char c = '0'; c <= '9'; c++) {
+            EMAIL_LOCAL_CHARS[c] = true;
+        }
+        for (char c = 'a'; c <= 'z'; c++) {
+            EMAIL_LOCAL_CHARS[c] = true;
+            EMAIL_LOCAL_CHARS[Character.toUpperCase(c)] = true;
+        }
+        for (char c : "_+&*-".toCharArray()) {
+            EMAIL_LOCAL_CHARS[c] = true;
+        }
+    }
 
     /**
-     * Validates email format
+     * Validates email format: dot-separated local part segments, '@', then one
+     * or more domain labels ending in a 2-7 letter top-level domain
      */
     public static boolean isValidEmail(String email) {
-        return email != null && EMAIL_PATTERN.matcher(email).matches();
+        if (email == null) {
+            return false;
+        }
+
+        int at = email.indexOf('@');
+        if (at <= 0) {
+            return false;
+        }
+
+        // Local part: segments of allowed characters, separated by single dots
+        boolean segmentEmpty = true;
+        for (int i = 0; i < at; i++) {
+            char c = email.charAt(i);
+            if (c == '.') {
+                if (segmentEmpty) {
+                    return false;
+                }
+                segmentEmpty = true;
+            } else if (c < 128 && EMAIL_LOCAL_CHARS[c]) {
+                segmentEmpty = false;
+            } else {
+                return false;
+            }
+        }
+        if (segmentEmpty) {
+            return false;
+        }
+
+        // Domain: labels of letters, digits and '-' each followed by a dot, then the top-level domain
+        int labels = 0;
+        int labelStart = at + 1;
+        for (int i = labelStart; i < email.length(); i++) {
+            char c = email.charAt(i);
+            if (c == '.') {
+                if (i == labelStart) {
+                    return false;
+                }
+                labels++;
+                labelStart = i + 1;
+            } else if (!isAsciiLetter(c) && !isAsciiDigit(c) && c != '-') {
+                return false;
+            }
+        }
+
+        int tldLength = email.length() - labelStart;
+        if (labels == 0 || tldLength < 2 || tldLength > 7) {
+            return false;
+        }
+        for (int i = labelStart; i < email.length(); i++) {
+            if (!isAsciiLetter(email.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
     }
 
     /**
-     * Validates phone number format
+     * Validates phone number format: an optional leading '+' and 10-15 digits,
+     * ignoring whitespace
      */
     public static boolean isValidPhone(String phone) {
-        return phone != null && PHONE_PATTERN.matcher(phone.replaceAll("\\s", "")).matches();
+        if (phone == null) {
+            return false;
+        }
+
+        int digits = 0;
+        boolean seenAny = false;
+        for (int i = 0; i < phone.length(); i++) {
+            char c = phone.charAt(i);
+            if (isWhitespace(c)) {
+                continue;
+            }
+            if (isAsciiDigit(c)) {
+                digits++;
+            } else if (c != '+' || seenAny) {
+                return false;
+            }
+            seenAny = true;
+        }
+        return digits >= 10 && digits <= 15;
     }
 
     /**
-     * Validates Indian car number format
+     * Validates Indian car number format (e.g. MH 12 AB 1234), ignoring whitespace:
+     * 2 letters, 1-2 digits, 1-3 letters, 1-4 digits
      */
     public static boolean isValidCarNumber(String carNumber) {
-        return carNumber != null && CAR_NUMBER_PATTERN.matcher(carNumber.replaceAll("\\s", "")).matches();
+        if (carNumber == null) {
+            return false;
+        }
+
+        // Letter and digit runs alternate, so each run's length is checked when the next one starts
+        int run = 0;
+        int runLength = 0;
+        boolean inLetters = false;
+        for (int i = 0; i < carNumber.length(); i++) {
+            char c = carNumber.charAt(i);
+            if (isWhitespace(c)) {
+                continue;
+            }
+
+            boolean letter = c >= 'A' && c <= 'Z';
+            if (!letter && !isAsciiDigit(c)) {
+                return false;
+            }
+
+            if (runLength == 0 || letter != inLetters) {
+                if (runLength > 0 && !isValidCarNumberRun(run, runLength)) {
+                    return false;
+                }
+                run++;
+                runLength = 0;
+                inLetters = letter;
+                if (run > 4 || letter != (run % 2 == 1)) {
+                    return false;
+                }
+            }
+            runLength++;
+        }
+        return run == 4 && isValidCarNumberRun(run, runLength);
+    }
+
+    private static boolean isValidCarNumberRun(int run, int length) {
+        switch (run) {
+            case 1: return length == 2;
+            case 2: return length <= 2;
+            case 3: return length <= 3;
+            default: return length <= 4;
+        }
     }
 
     /**
-     * Sanitizes text input by removing potentially harmful characters
+     * Sanitizes text input by removing potentially harmful characters.
+     * Removes HTML tags, then the characters <>"'%;()&+, then trims;
+     * returns null when nothing is left.
      */
     public static String sanitizeText(String input) {
         if (input == null) {
             return null;
         }
-        
-        // Remove HTML tags and script content
-        String sanitized = input.replaceAll("<[^>]*>", "");
-        
-        // Remove potential XSS characters
-        sanitized = sanitized.replaceAll("[<>\"'%;()&+]", "");
-        
-        // Trim whitespace
-        sanitized = sanitized.trim();
-        
-        return sanitized.isEmpty() ? null : sanitized;
+
+        int length = input.length();
+        int firstUnsafe = 0;
+        while (firstUnsafe < length && !isUnsafe(input.charAt(firstUnsafe))) {
+            firstUnsafe++;
+        }
+
+        // Clean input: only trimming can apply, and trim() returns the same string when there is nothing to trim
+        if (firstUnsafe == length) {
+            String trimmed = input.trim();
+            return trimmed.isEmpty() ? null : trimmed;
+        }
+
+        StringBuilder sanitized = new StringBuilder(length);
+        sanitized.append(input, 0, firstUnsafe);
+        boolean closingBracketAhead = true;
+
+        for (int i = firstUnsafe; i < length; i++) {
+            char c = input.charAt(i);
+            if (c == '<' && closingBracketAhead) {
+                // A tag runs to the next '>'; without one the '<' is dropped like any unsafe character
+                int close = input.indexOf('>', i + 1);
+                if (close >= 0) {
+                    i = close;
+                    continue;
+                }
+                closingBracketAhead = false;
+            }
+            if (!isUnsafe(c)) {
+                sanitized.append(c);
+            }
+        }
+
+        int start = 0;
+        int end = sanitized.length();
+        while (start < end && sanitized.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && sanitized.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return start == end ? null : sanitized.substring(start, end);
+    }
+
+    /**
+     * Removes whitespace characters (space, tab, line breaks, form feed, vertical tab).
+     * Returns the input itself when it contains none.
+     */
+    public static String stripWhitespace(String input) {
+        if (input == null) {
+            return null;
+        }
+
+        int first = 0;
+        while (first < input.length() && !isWhitespace(input.charAt(first))) {
+            first++;
+        }
+        if (first == input.length()) {
+            return input;
+        }
+
+        StringBuilder stripped = new StringBuilder(input.length());
+        stripped.append(input, 0, first);
+        for (int i = first + 1; i < input.length(); i++) {
+            char c = input.charAt(i);
+            if (!isWhitespace(c)) {
+                stripped.append(c);
+            }
+        }
+        return stripped.toString();
     }
 
     /**
@@ -92,4 +278,21 @@ public class ValidationUtil {
         String sanitized = sanitizeText(location);
         return sanitized != null && sanitized.length() >= 2 && sanitized.length() <= 100;
     }
+
+    private static boolean isUnsafe(char c) {
+        return c < 128 && UNSAFE_CHARS[c];
+    }
+
+    // Same set as the regex \s: [ \t\n\x0B\f\r]
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    private static boolean isAsciiLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static boolean isAsciiDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
 }
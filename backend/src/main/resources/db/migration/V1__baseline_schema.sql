@@ -0,0 +1,59 @@
+-- Baseline: the schema as it was created by Hibernate (ddl-auto) before migrations were introduced.
+-- Existing databases are baselined at this version (spring.flyway.baseline-on-migrate) and skip it.
+
+CREATE TABLE users (
+    id             BIGINT       NOT NULL AUTO_INCREMENT,
+    first_name     VARCHAR(255) NOT NULL,
+    last_name      VARCHAR(255) NOT NULL,
+    email          VARCHAR(255) NOT NULL,
+    phone          VARCHAR(255) NOT NULL,
+    password       VARCHAR(255) NOT NULL,
+    is_active      BIT,
+    email_verified BIT,
+    phone_verified BIT,
+    rating         FLOAT(53),
+    total_trips    INTEGER,
+    created_at     DATETIME(6),
+    updated_at     DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_users_email UNIQUE (email)
+) ENGINE = InnoDB;
+
+CREATE TABLE rides (
+    id              BIGINT       NOT NULL AUTO_INCREMENT,
+    driver_id       BIGINT       NOT NULL,
+    from_location   VARCHAR(255) NOT NULL,
+    to_location     VARCHAR(255) NOT NULL,
+    departure_date  DATE         NOT NULL,
+    departure_time  TIME(6)      NOT NULL,
+    available_seats INTEGER      NOT NULL,
+    price_per_seat  FLOAT(53)    NOT NULL,
+    car_model       VARCHAR(255) NOT NULL,
+    car_number      VARCHAR(255) NOT NULL,
+    stops           TEXT,
+    additional_info TEXT,
+    instant_booking BIT,
+    allow_smoking   BIT,
+    allow_pets      BIT,
+    allow_food      BIT,
+    status          ENUM ('ACTIVE','COMPLETED','CANCELLED'),
+    created_at      DATETIME(6),
+    updated_at      DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_rides_driver FOREIGN KEY (driver_id) REFERENCES users (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE bookings (
+    id              BIGINT    NOT NULL AUTO_INCREMENT,
+    passenger_id    BIGINT    NOT NULL,
+    ride_id         BIGINT    NOT NULL,
+    seats_booked    INTEGER   NOT NULL,
+    total_amount    FLOAT(53) NOT NULL,
+    status          ENUM ('PENDING','CONFIRMED','REJECTED','CANCELLED','COMPLETED'),
+    booking_message TEXT,
+    created_at      DATETIME(6),
+    updated_at      DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_bookings_passenger FOREIGN KEY (passenger_id) REFERENCES users (id),
+    CONSTRAINT fk_bookings_ride FOREIGN KEY (ride_id) REFERENCES rides (id)
+) ENGINE = InnoDB;
@@ -0,0 +1,26 @@
+-- Optimistic locking versions on rides and bookings
+ALTER TABLE rides ADD COLUMN version BIGINT DEFAULT 0;
+ALTER TABLE bookings ADD COLUMN version BIGINT DEFAULT 0;
+
+-- Registration relies on the unique constraints instead of look-ups
+ALTER TABLE users ADD CONSTRAINT uk_users_phone UNIQUE (phone);
+
+-- Rating aggregates, incremented atomically by RatingService
+ALTER TABLE users ADD COLUMN rating_sum DOUBLE DEFAULT 0 NOT NULL;
+ALTER TABLE users ADD COLUMN rating_count INT DEFAULT 0 NOT NULL;
+
+-- Ratings ledger: one rating per ride, rater and ratee
+CREATE TABLE ratings (
+    id         BIGINT      NOT NULL AUTO_INCREMENT,
+    ride_id    BIGINT      NOT NULL,
+    rater_id   BIGINT      NOT NULL,
+    ratee_id   BIGINT      NOT NULL,
+    score      FLOAT(53)   NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_ratings_trip UNIQUE (ride_id, rater_id, ratee_id),
+    INDEX idx_ratings_ratee (ratee_id),
+    CONSTRAINT fk_ratings_ride FOREIGN KEY (ride_id) REFERENCES rides (id),
+    CONSTRAINT fk_ratings_rater FOREIGN KEY (rater_id) REFERENCES users (id),
+    CONSTRAINT fk_ratings_ratee FOREIGN KEY (ratee_id) REFERENCES users (id)
+) ENGINE = InnoDB;
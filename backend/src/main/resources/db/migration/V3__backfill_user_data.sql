@@ -0,0 +1,10 @@
+-- Data fix-ups that used to run row by row in DataLoader on every startup
+
+-- Users created before is_active had a default
+UPDATE users SET is_active = TRUE WHERE is_active IS NULL;
+
+-- Users rated before rating_sum/rating_count existed, when every rating also counted one trip
+UPDATE users
+SET rating_sum = rating * total_trips,
+    rating_count = total_trips
+WHERE rating_count = 0 AND total_trips > 0 AND rating > 0;
@@ -0,0 +1,16 @@
+-- Indexes for the queries in RideRepository and BookingRepository.
+-- On MySQL the leading driver_id / ride_id / passenger_id columns also serve the foreign keys,
+-- so the indexes InnoDB created implicitly for them are dropped.
+
+-- Active ride listing, keyset pages and the search index load:
+-- status = 'ACTIVE' AND departure_date >= CURRENT_DATE ORDER BY departure_date, departure_time, id
+CREATE INDEX idx_rides_status_departure ON rides (status, departure_date, departure_time, id);
+
+-- A driver's rides, newest departure first (backward index scan), and the driver booking views/stats
+CREATE INDEX idx_rides_driver_departure ON rides (driver_id, departure_date, departure_time);
+
+-- Bookings of a ride, optionally by status
+CREATE INDEX idx_bookings_ride_status ON bookings (ride_id, status);
+
+-- A passenger's bookings, newest first
+CREATE INDEX idx_bookings_passenger_created ON bookings (passenger_id, created_at);
@@ -0,0 +1,5 @@
+-- Optional pickup and drop coordinates for the nearby ride search
+ALTER TABLE rides ADD COLUMN pickup_lat DOUBLE;
+ALTER TABLE rides ADD COLUMN pickup_lng DOUBLE;
+ALTER TABLE rides ADD COLUMN drop_lat DOUBLE;
+ALTER TABLE rides ADD COLUMN drop_lng DOUBLE;
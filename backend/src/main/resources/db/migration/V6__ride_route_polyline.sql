@@ -0,0 +1,2 @@
+-- Optional simplified route (encoded polyline) for the corridor ride search
+ALTER TABLE rides ADD COLUMN route_polyline TEXT;
@@ -0,0 +1,17 @@
+-- Intermediate stops as rows, numbered along the route from 1
+CREATE TABLE ride_stops (
+    id       BIGINT       NOT NULL AUTO_INCREMENT,
+    ride_id  BIGINT       NOT NULL,
+    position INT          NOT NULL,
+    location VARCHAR(255) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_ride_stops_position UNIQUE (ride_id, position),
+    CONSTRAINT fk_ride_stops_ride FOREIGN KEY (ride_id) REFERENCES rides (id)
+) ENGINE = InnoDB;
+
+-- Seats left per route segment (4 bytes each); NULL keeps the single whole-route segment
+ALTER TABLE rides ADD COLUMN segment_seats VARBINARY(255);
+
+-- The part of the route a booking covers; NULL is the whole route
+ALTER TABLE bookings ADD COLUMN pickup_stop INT;
+ALTER TABLE bookings ADD COLUMN drop_stop INT;
@@ -0,0 +1,2 @@
+-- The stops column already lists a ride's stops in route order; the rows were never read
+DROP TABLE ride_stops;
@@ -0,0 +1,76 @@
+package com.carpool.config;
+
+import com.carpool.service.ServiceTestSupport;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * With a single admission permit, the NDJSON ride stream runs on the permit its
+ * request was admitted with and gives it back when done, while any other ride
+ * listing is capped whatever its Accept header mentions
+ */
+@SpringBootTest(properties = {
+    "app.admission.enabled=true",
+    "app.admission.max-concurrent-requests=1",
+    "app.admission.max-wait=50ms"
+})
+@AutoConfigureMockMvc
+class AdmissionControlTest extends ServiceTestSupport {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AdmissionControl admissionControl;
+
+    @Test
+    void ndjsonStreamTakesOverTheRequestPermit() throws Exception {
+        createRide(createUser(), "Nashik", "Dhule", 3);
+
+        MvcResult result = mockMvc.perform(rides().header(HttpHeaders.ACCEPT, "application/x-ndjson"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"));
+
+        assertThat(admissionControl.tryAcquire()).isTrue();
+        admissionControl.release();
+    }
+
+    @Test
+    void jsonListingIsCappedEvenWhenAcceptMentionsNdjson() throws Exception {
+        // Not a type the stream produces, so the JSON listing answers it
+        String accept = "application/json, application/x-ndjson-seq";
+
+        assertThat(admissionControl.tryAcquire()).isTrue();
+        try {
+            mockMvc.perform(rides().header(HttpHeaders.ACCEPT, accept))
+                .andExpect(status().isServiceUnavailable());
+        } finally {
+            admissionControl.release();
+        }
+
+        mockMvc.perform(rides().header(HttpHeaders.ACCEPT, accept))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith("application/json"));
+    }
+
+    private static MockHttpServletRequestBuilder rides() {
+        // Mapped like the DispatcherServlet, which the filter's path checks expect
+        return get("/rides").servletPath("/rides");
+    }
+}
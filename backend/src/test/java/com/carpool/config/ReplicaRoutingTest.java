@@ -0,0 +1,117 @@
+package com.carpool.config;
+
+import com.carpool.entity.Ride;
+import com.carpool.entity.User;
+import com.carpool.service.ServiceTestSupport;
+import com.carpool.service.UserService;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * With a replica configured, read-only transactions read from it, and writes and
+ * cache-filling reads go to the primary; checked on two separate in-memory
+ * databases that do not replicate
+ */
+@SpringBootTest(properties = {
+    "app.datasource.replica.urls=" + ReplicaRoutingTest.REPLICA_URL,
+    "app.datasource.replica.max-lag-seconds=-1"
+})
+class ReplicaRoutingTest extends ServiceTestSupport {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:carpool_replica;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+    private static final JdbcTemplate REPLICA = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+
+    static {
+        Flyway.configure().dataSource(REPLICA_URL, "sa", "").load().migrate();
+    }
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private OpenEntityManagerInViewInterceptor openEntityManagerInViewInterceptor;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void readOnlyTransactionsReadFromTheReplica() {
+        insertOnReplica(9_000_001L, "Replica", UUID.randomUUID() + "@example.com");
+
+        // Spring Data's own read methods run in read-only transactions
+        assertThat(userRepository.findById(9_000_001L)).isPresent();
+        assertThat(onPrimary(() -> userRepository.findById(9_000_001L))).isEmpty();
+    }
+
+    @Test
+    void writesGoToThePrimary() {
+        User user = createUser();
+
+        assertThat(onPrimary(() -> userRepository.findById(user.getId()))).isPresent();
+        assertThat(replicaUsers(user.getId())).isZero();
+    }
+
+    @Test
+    void cacheFillingReadsComeFromThePrimary() {
+        User user = createUser();
+        // The replica has not caught up with a rename yet
+        insertOnReplica(user.getId(), "Stale", user.getEmail());
+
+        assertThat(userService.findUserById(user.getId()).getFirstName()).isEqualTo("Test");
+        assertThat(userService.findUserById(user.getId()).getFirstName()).isEqualTo("Test");
+
+        // Not on the replica at all
+        Ride ride = createRide(createUser(), "Satara", "Sangli", 3);
+        assertThat(rideService.getRideSummary(ride.getId()).id()).isEqualTo(ride.getId());
+    }
+
+    @Test
+    void writeAfterReadInOneRequestGoesToThePrimary() throws Exception {
+        ServletWebRequest request = new ServletWebRequest(new MockHttpServletRequest());
+        openEntityManagerInViewInterceptor.preHandle(request);
+        User user;
+        try {
+            // The request's session first reads from the replica...
+            userRepository.findById(Long.MAX_VALUE);
+            // ...then writes, which must not reuse that connection
+            user = createUser();
+        } finally {
+            openEntityManagerInViewInterceptor.afterCompletion(request, null);
+        }
+
+        assertThat(replicaUsers(user.getId())).isZero();
+        assertThat(onPrimary(() -> userRepository.findById(user.getId()))).isPresent();
+    }
+
+    /**
+     * Run a read in a read-write transaction, which the routing sends to the primary
+     */
+    private <T> T onPrimary(Supplier<T> read) {
+        return new TransactionTemplate(transactionManager).execute(status -> read.get());
+    }
+
+    private static void insertOnReplica(Long id, String firstName, String email) {
+        REPLICA.update("INSERT INTO users (id, first_name, last_name, email, phone, password, created_at, updated_at) " +
+                       "VALUES (?, ?, 'User', ?, ?, 'password123', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)",
+                       id, firstName, email, "91" + id);
+    }
+
+    private static int replicaUsers(Long id) {
+        return REPLICA.queryForObject("SELECT COUNT(*) FROM users WHERE id = ?", Integer.class, id);
+    }
+}
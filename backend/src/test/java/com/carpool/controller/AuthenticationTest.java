@@ -0,0 +1,131 @@
+package com.carpool.controller;
+
+import com.carpool.entity.Booking;
+import com.carpool.entity.Ride;
+import com.carpool.entity.User;
+import com.carpool.service.BookingService;
+import com.carpool.service.ServiceTestSupport;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.hamcrest.Matchers.hasItem;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.hamcrest.Matchers.hasItem;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.hamcrest.Matchers.hasItem;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Creating, changing and deleting rides and bookings and rating users need a
+ * token, and act as the token's user whatever IDs the request names. Booking
+ * reads are public but show the driver's contact details only to the
+ * booking's passenger and driver.
+ */
+@AutoConfigureMockMvc
+class AuthenticationTest extends ServiceTestSupport {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Test
+    void writesWithoutTokenAreUnauthorized() throws Exception {
+        User driver = createUser();
+        Ride ride = createRide(driver, "Latur", "Beed", 3);
+
+        mockMvc.perform(post("/rides").param("driverId", driver.getId().toString())
+                .contentType(MediaType.APPLICATION_JSON).content("{}"))
+            .andExpect(status().isUnauthorized())
+            .andExpect(jsonPath("$.message").value("Authentication required"));
+        mockMvc.perform(put("/rides/{id}/status", ride.getId()).param("status", "CANCELLED"))
+            .andExpect(status().isUnauthorized());
+        mockMvc.perform(delete("/rides/{id}", ride.getId()).param("driverId", driver.getId().toString()))
+            .andExpect(status().isUnauthorized());
+        mockMvc.perform(post("/api/bookings").param("passengerId", createUser().getId().toString())
+                .contentType(MediaType.APPLICATION_JSON).content("{\"rideId\":" + ride.getId() + ",\"seatsBooked\":1}"))
+            .andExpect(status().isUnauthorized());
+        mockMvc.perform(put("/api/bookings/1/status").param("status", "CANCELLED").param("userId", "1"))
+            .andExpect(status().isUnauthorized());
+        mockMvc.perform(put("/users/{id}/rating", driver.getId()).param("rating", "5").param("rideId", ride.getId().toString()))
+            .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void readsArePublic() throws Exception {
+        Ride ride = createRide(createUser(), "Latur", "Beed", 3);
+
+        mockMvc.perform(get("/rides")).andExpect(status().isOk());
+        mockMvc.perform(get("/rides/{id}", ride.getId())).andExpect(status().isOk());
+    }
+
+    @Test
+    void onlyTheDriverChangesRideStatus() throws Exception {
+        User driver = createUser();
+        Ride ride = createRide(driver, "Latur", "Beed", 3);
+
+        mockMvc.perform(put("/rides/{id}/status", ride.getId()).param("status", "CANCELLED")
+                .header(HttpHeaders.AUTHORIZATION, bearer(createUser())))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.error").value("You can only change the status of your own rides"));
+
+        mockMvc.perform(put("/rides/{id}/status", ride.getId()).param("status", "CANCELLED")
+                .header(HttpHeaders.AUTHORIZATION, bearer(driver)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.ride.status").value("CANCELLED"));
+    }
+
+    @Test
+    void requestedUserIdMustBeTheTokenUser() throws Exception {
+        User driver = createUser();
+        Ride ride = createRide(driver, "Latur", "Beed", 3);
+
+        mockMvc.perform(delete("/rides/{id}", ride.getId()).param("driverId", driver.getId().toString())
+                .header(HttpHeaders.AUTHORIZATION, bearer(createUser())))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.error").value("You can only act on behalf of the signed-in user"));
+    }
+
+    @Test
+    void driverContactOnlyForTheBookingsParticipants() throws Exception {
+        User driver = createUser();
+        User passenger = createUser();
+        Ride ride = createRide(driver, "Latur", "Beed", 3);
+        Booking booking = bookingService.createBooking(booking(ride.getId(), 1), passenger.getId());
+
+        for (User participant : new User[] {passenger, driver}) {
+            mockMvc.perform(get("/api/bookings/{id}", booking.getId())
+                    .header(HttpHeaders.AUTHORIZATION, bearer(participant)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.driverContact.phone").value(driver.getPhone()));
+        }
+
+        // Anonymous, then signed in as a user with no part in the booking
+        for (String authorization : new String[] {null, bearer(createUser())}) {
+            for (MockHttpServletRequestBuilder request : new MockHttpServletRequestBuilder[] {
+                    get("/api/bookings/{id}", booking.getId()),
+                    get("/api/bookings/passenger/{id}", passenger.getId()),
+                    get("/api/bookings/user/{id}", passenger.getId()),
+                    get("/api/bookings/driver/{id}", driver.getId()),
+                    get("/api/bookings/ride/{id}", ride.getId())}) {
+                if (authorization != null) {
+                    request.header(HttpHeaders.AUTHORIZATION, authorization);
+                }
+                mockMvc.perform(request)
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$..driverContact.phone").isEmpty())
+                    .andExpect(jsonPath("$..status").value(hasItem("CONFIRMED")));
+            }
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.carpool.controller;
+
+import com.carpool.entity.Booking;
+import com.carpool.entity.Ride;
+import com.carpool.entity.User;
+import com.carpool.repository.BookingRepository;
+import com.carpool.service.ServiceTestSupport;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Each booking endpoint runs a fixed number of statements; the listings run
+ * the same number however many bookings they return
+ */
+@AutoConfigureMockMvc
+class BookingQueryCountTest extends ServiceTestSupport {
+
+    private static final int MANY = 20;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void createBooking() throws Exception {
+        Ride ride = createRide(createUser(), "Solapur", "Pandharpur", MANY);
+        User passenger = createUser();
+
+        long statements = statementsFor(post("/api/bookings").header(HttpHeaders.AUTHORIZATION, bearer(passenger))
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"rideId\":" + ride.getId() + ",\"seatsBooked\":1}"));
+
+        // Passenger (through the user cache), ride, guarded seat update and the ride as written, booking insert
+        assertThat(statements).isEqualTo(5);
+    }
+
+    @Test
+    void updateBookingStatus() throws Exception {
+        User driver = createUser();
+        Ride ride = createRide(driver, "Solapur", "Pandharpur", MANY);
+        Booking booking = addBooking(ride, createUser(), Booking.BookingStatus.PENDING);
+
+        long statements = statementsFor(put("/api/bookings/{id}/status", booking.getId())
+            .header(HttpHeaders.AUTHORIZATION, bearer(driver)).param("status", "CONFIRMED"));
+
+        // Booking with its participants, guarded seat update and the ride as written, booking update
+        assertThat(statements).isEqualTo(4);
+    }
+
+    @Test
+    void getBookingById() throws Exception {
+        Booking booking = addBooking(createRide(createUser(), "Solapur", "Pandharpur", MANY), createUser(), Booking.BookingStatus.CONFIRMED);
+
+        long statements = statementsFor(get("/api/bookings/{id}", booking.getId()));
+
+        assertThat(statements).isEqualTo(1);
+    }
+
+    @Test
+    void listingsDoNotGrowWithBookings() throws Exception {
+        User driver = createUser();
+        User passenger = createUser();
+        Ride ride = createRide(driver, "Solapur", "Pandharpur", MANY);
+        addBooking(ride, passenger, Booking.BookingStatus.CONFIRMED);
+
+        long[] one = listingStatements(driver, passenger, ride);
+        for (int i = 0; i < MANY; i++) {
+            addBooking(i % 2 == 0 ? ride : createRide(driver, "Solapur", "Pandharpur", MANY), i % 3 == 0 ? passenger : createUser(),
+                       Booking.BookingStatus.CONFIRMED);
+        }
+        long[] many = listingStatements(driver, passenger, ride);
+
+        assertThat(many).containsExactly(one).containsOnly(1L);
+    }
+
+    private long[] listingStatements(User driver, User passenger, Ride ride) throws Exception {
+        // The first calls also load the passenger, driver and ride into the caches
+        statementsFor(get("/api/bookings/user/{id}", passenger.getId()));
+        statementsFor(get("/api/bookings/driver/{id}", driver.getId()));
+        statementsFor(get("/api/bookings/ride/{id}", ride.getId()));
+        return new long[] {
+            statementsFor(get("/api/bookings/user/{id}", passenger.getId())),
+            statementsFor(get("/api/bookings/passenger/{id}", passenger.getId())),
+            statementsFor(get("/api/bookings/driver/{id}", driver.getId())),
+            statementsFor(get("/api/bookings/ride/{id}", ride.getId()))
+        };
+    }
+
+    private long statementsFor(RequestBuilder request) throws Exception {
+        statistics.clear();
+        mockMvc.perform(request).andExpect(status().isOk());
+        return statistics.getPrepareStatementCount();
+    }
+
+    private Booking addBooking(Ride ride, User passenger, Booking.BookingStatus bookingStatus) {
+        Booking booking = new Booking(passenger, ride, 1, null);
+        booking.setStatus(bookingStatus);
+        return bookingRepository.save(booking);
+    }
+}
@@ -0,0 +1,102 @@
+package com.carpool.controller;
+
+import com.carpool.entity.User;
+import com.carpool.repository.UserRepository;
+import com.carpool.service.PasswordHasher;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Registering and logging in hold no database connection while the password is hashed
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class PasswordHashingConnectionTest {
+
+    private static final String PASSWORD = "secret123";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @SpyBean
+    private PasswordHasher passwordHasher;
+
+    // Connections in use each time a hash was computed or checked
+    private final List<Integer> activeWhileHashing = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void recordConnectionsWhileHashing() {
+        doAnswer(invocation -> {
+            activeWhileHashing.add(activeConnections());
+            return invocation.callRealMethod();
+        }).when(passwordHasher).encode(anyString());
+        doAnswer(invocation -> {
+            activeWhileHashing.add(activeConnections());
+            return invocation.callRealMethod();
+        }).when(passwordHasher).matches(anyString(), anyString());
+    }
+
+    @Test
+    void registerHashesWithoutAConnection() throws Exception {
+        mockMvc.perform(post("/users/register").contentType(MediaType.APPLICATION_JSON)
+                .content(registration(UUID.randomUUID() + "@example.com")))
+            .andExpect(status().isOk());
+
+        assertThat(activeWhileHashing).containsExactly(0);
+    }
+
+    @Test
+    void loginVerifiesAndRehashesWithoutAConnection() throws Exception {
+        String email = UUID.randomUUID() + "@example.com";
+        // A hash with a lower cost than configured is upgraded on login
+        String weakHash = new BCryptPasswordEncoder(4).encode(PASSWORD);
+        userRepository.save(new User("Test", "User", email, phone(), weakHash));
+
+        mockMvc.perform(post("/users/login").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"email\":\"" + email + "\",\"password\":\"" + PASSWORD + "\"}"))
+            .andExpect(status().isOk());
+
+        assertThat(activeWhileHashing).containsExactly(0, 0);
+        assertThat(userRepository.findByEmail(email).orElseThrow().getPassword()).isNotEqualTo(weakHash);
+    }
+
+    private int activeConnections() throws Exception {
+        return dataSource.unwrap(HikariDataSource.class).getHikariPoolMXBean().getActiveConnections();
+    }
+
+    private static String registration(String email) {
+        return "{\"firstName\":\"Test\",\"lastName\":\"User\",\"email\":\"" + email
+            + "\",\"phone\":\"" + phone() + "\",\"password\":\"" + PASSWORD + "\"}";
+    }
+
+    private static String phone() {
+        return String.valueOf(9_000_000_000L + (long) (Math.random() * 999_999_999L));
+    }
+}
@@ -0,0 +1,50 @@
+package com.carpool.controller;
+
+import com.carpool.service.ServiceTestSupport;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.time.LocalDate;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Ride offers take their stops as a list, or as the comma separated string older clients send
+ */
+@AutoConfigureMockMvc
+class RideStopsTest extends ServiceTestSupport {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+
+
+    @Test
+    void stopsAsAList() throws Exception {
+        offer("[\"Wai\", \"Karad\"]")
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.ride.stops").value("Wai, Karad"));
+    }
+
+    @Test
+    void stopsAsACommaSeparatedString() throws Exception {
+        offer("\"Wai, Karad\"")
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.ride.stops").value("Wai, Karad"));
+    }
+
+    private ResultActions offer(String stops) throws Exception {
+        return mockMvc.perform(post("/rides").header(HttpHeaders.AUTHORIZATION, bearer(createUser()))
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"fromLocation\":\"Pune\",\"toLocation\":\"Kolhapur\",\"departureDate\":\""
+                + LocalDate.now().plusDays(3) + "\",\"departureTime\":\"09:00\",\"availableSeats\":3,"
+                + "\"pricePerSeat\":250.0,\"carModel\":\"Swift\",\"carNumber\":\"MH15AB1234\",\"stops\":" + stops + "}"));
+    }
+}
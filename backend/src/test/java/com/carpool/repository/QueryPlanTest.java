@@ -0,0 +1,213 @@
+package com.carpool.repository;
+
+import com.carpool.entity.Booking;
+import com.carpool.entity.Ride;
+import com.carpool.entity.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * No ride or booking repository query scans a whole table on MySQL.
+ *
+ * Runs the Flyway migrations on a MySQL container, fills it with a year of rides
+ * and bookings, calls every query of RideRepository and BookingRepository, and
+ * EXPLAINs each statement it sent (taken, with its values, from the server's
+ * general log). Skipped when Docker is not available.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Testcontainers(disabledWithoutDocker = true)
+class QueryPlanTest {
+
+    private static final int USERS = 300;
+
+    private static final int RIDES = 3000;
+
+    private static final int BOOKINGS = 6000;
+
+    @Container
+    private static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0")
+        // root may read and truncate mysql.general_log
+        .withUsername("root")
+        .withPassword("test")
+        .withCommand("--general-log=1", "--log-output=TABLE");
+
+    @DynamicPropertySource
+    static void mysql(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", MYSQL::getJdbcUrl);
+        registry.add("spring.datasource.username", MYSQL::getUsername);
+        registry.add("spring.datasource.password", MYSQL::getPassword);
+        registry.add("spring.datasource.driver-class-name", MYSQL::getDriverClassName);
+        registry.add("spring.jpa.properties.hibernate.dialect", () -> "org.hibernate.dialect.MySQLDialect");
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "validate");
+    }
+
+    @Autowired
+    private RideRepository rideRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void noQueryScansAWholeTable() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        Sample sample = transaction.execute(status -> seed());
+        jdbcTemplate.execute("ANALYZE TABLE users, rides, bookings");
+
+        Ride ride = sample.ride();
+        User driver = ride.getDriver();
+        User passenger = sample.booking().getPassenger();
+        List<Long> rideIds = sample.rideIds().subList(0, 20);
+        PageRequest page = PageRequest.of(0, 20);
+
+        Map<String, Runnable> queries = new LinkedHashMap<>();
+        queries.put("RideRepository.findByDriver", () -> rideRepository.findByDriver(driver));
+        queries.put("RideRepository.findByStatus", () -> rideRepository.findByStatus(Ride.RideStatus.ACTIVE));
+        queries.put("RideRepository.findSummaryById", () -> rideRepository.findSummaryById(ride.getId()));
+        queries.put("RideRepository.findSummariesByIdIn", () -> rideRepository.findSummariesByIdIn(rideIds));
+        queries.put("RideRepository.findSummariesByDriverId", () -> rideRepository.findSummariesByDriverId(driver.getId()));
+        queries.put("RideRepository.findActiveRidesPage", () -> rideRepository.findActiveRidesPage(page));
+        queries.put("RideRepository.findActiveRidesPageAfter", () -> rideRepository.findActiveRidesPageAfter(
+            ride.getDepartureDate(), ride.getDepartureTime(), ride.getId(), page));
+        queries.put("RideRepository.streamActiveRides", () -> drain(rideRepository.streamActiveRides()));
+        queries.put("RideRepository.streamUpcomingActiveRides", () -> drain(rideRepository.streamUpcomingActiveRides()));
+        queries.put("RideRepository.findByDriverAndStatus",
+            () -> rideRepository.findByDriverAndStatus(driver, Ride.RideStatus.ACTIVE));
+
+        Long bookingId = sample.booking().getId();
+        queries.put("BookingRepository.findWithParticipantsById", () -> bookingRepository.findWithParticipantsById(bookingId));
+        queries.put("BookingRepository.findByPassenger", () -> bookingRepository.findByPassenger(passenger));
+        queries.put("BookingRepository.findByRide", () -> bookingRepository.findByRide(ride));
+        queries.put("BookingRepository.findByRideWithPassenger", () -> bookingRepository.findByRideWithPassenger(ride.getId()));
+        queries.put("BookingRepository.findByPassengerAndStatus",
+            () -> bookingRepository.findByPassengerAndStatus(passenger, Booking.BookingStatus.CONFIRMED));
+        queries.put("BookingRepository.findByRideAndStatus",
+            () -> bookingRepository.findByRideAndStatus(ride, Booking.BookingStatus.CONFIRMED));
+        queries.put("BookingRepository.findByRideDriver", () -> bookingRepository.findByRideDriver(driver));
+        queries.put("BookingRepository.existsByRideIdAndPassengerIdAndStatusIn",
+            () -> bookingRepository.existsByRideIdAndPassengerIdAndStatusIn(ride.getId(), passenger.getId(),
+                EnumSet.of(Booking.BookingStatus.CONFIRMED, Booking.BookingStatus.COMPLETED)));
+        queries.put("BookingRepository.findViewById", () -> bookingRepository.findViewById(bookingId));
+        queries.put("BookingRepository.findViewsByPassengerId", () -> bookingRepository.findViewsByPassengerId(passenger.getId()));
+        queries.put("BookingRepository.findViewsByDriverId", () -> bookingRepository.findViewsByDriverId(driver.getId()));
+        queries.put("BookingRepository.findViewsByRideId", () -> bookingRepository.findViewsByRideId(ride.getId()));
+        queries.put("BookingRepository.findBookingStatsByDriver",
+            () -> bookingRepository.findBookingStatsByDriver(driver.getId()));
+
+        List<String> fullScans = new ArrayList<>();
+        queries.forEach((name, query) -> {
+            jdbcTemplate.execute("TRUNCATE TABLE mysql.general_log");
+            transaction.executeWithoutResult(status -> query.run());
+            List<String> statements = loggedSelects();
+            assertThat(statements).as("statements logged for %s", name).isNotEmpty();
+
+            for (String sql : statements) {
+                for (Map<String, Object> row : jdbcTemplate.queryForList("EXPLAIN " + sql)) {
+                    if ("ALL".equals(row.get("type"))) {
+                        fullScans.add(name + " scans " + row.get("table") + ": " + sql);
+                    }
+                }
+            }
+        });
+
+        assertThat(fullScans).isEmpty();
+    }
+
+    /**
+     * Users who drive and ride; a year of past rides, mostly completed, and a month of active ones ahead
+     */
+    private Sample seed() {
+        SplittableRandom random = new SplittableRandom(19);
+        LocalDate today = LocalDate.now();
+
+        List<User> users = new ArrayList<>(USERS);
+        for (int i = 0; i < USERS; i++) {
+            users.add(new User("Plan", "User" + i, "plan" + i + "@example.com", String.valueOf(9_100_000_000L + i),
+                               "password123"));
+        }
+        users = userRepository.saveAll(users);
+
+        List<Ride> rides = new ArrayList<>(RIDES);
+        for (int i = 0; i < RIDES; i++) {
+            boolean upcoming = random.nextInt(100) < 15;
+            Ride ride = new Ride(users.get(random.nextInt(USERS)), "City" + random.nextInt(40), "City" + random.nextInt(40),
+                                 upcoming ? today.plusDays(random.nextInt(30)) : today.minusDays(1 + random.nextInt(365)),
+                                 LocalTime.of(random.nextInt(24), random.nextInt(4) * 15), 4, 250.0,
+                                 "Swift", "MH15AB1234");
+            if (!upcoming) {
+                ride.setStatus(random.nextInt(10) == 0 ? Ride.RideStatus.CANCELLED : Ride.RideStatus.COMPLETED);
+            }
+            rides.add(ride);
+        }
+        rides = rideRepository.saveAll(rides);
+
+        Booking.BookingStatus[] statuses = Booking.BookingStatus.values();
+        List<Booking> bookings = new ArrayList<>(BOOKINGS);
+        for (int i = 0; i < BOOKINGS; i++) {
+            Ride ride = rides.get(random.nextInt(RIDES));
+            User passenger = users.get(random.nextInt(USERS));
+            if (passenger.getId().equals(ride.getDriver().getId())) {
+                continue;
+            }
+            Booking booking = new Booking(passenger, ride, 1, null);
+            booking.setStatus(statuses[random.nextInt(statuses.length)]);
+            bookings.add(booking);
+        }
+        bookings = bookingRepository.saveAll(bookings);
+
+        Booking booking = bookings.stream()
+            .filter(b -> b.getRide().getStatus() == Ride.RideStatus.ACTIVE)
+            .findFirst()
+            .orElseThrow();
+        return new Sample(booking.getRide(), booking, rides.stream().map(Ride::getId).toList());
+    }
+
+    private List<String> loggedSelects() {
+        return jdbcTemplate.queryForList(
+            "SELECT CONVERT(argument USING utf8mb4) FROM mysql.general_log " +
+            "WHERE command_type IN ('Query', 'Execute') AND LOWER(CONVERT(argument USING utf8mb4)) LIKE 'select%' " +
+            // Leaves out this query itself
+            "AND CONVERT(argument USING utf8mb4) NOT LIKE '%general_log%'",
+            String.class);
+    }
+
+    private static void drain(Stream<?> stream) {
+        try (stream) {
+            stream.forEach(row -> { });
+        }
+    }
+
+    private record Sample(Ride ride, Booking booking, List<Long> rideIds) {}
+}
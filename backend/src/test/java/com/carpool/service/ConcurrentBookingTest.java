@@ -0,0 +1,154 @@
+package com.carpool.service;
+
+import com.carpool.entity.Booking;
+import com.carpool.entity.Ride;
+import com.carpool.entity.User;
+import com.carpool.repository.BookingRepository;
+import com.carpool.repository.RideRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Concurrent bookings and confirmations on one ride take every seat without
+ * ever overselling it, and the in-memory search index only sees seat changes
+ * that committed
+ */
+class ConcurrentBookingTest extends ServiceTestSupport {
+
+    private static final int SEATS = 4;
+
+    private static final int PASSENGERS = 16;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private RideSearchIndex rideSearchIndex;
+
+    @Autowired
+    private RideRepository rideRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void concurrentBookingsTakeEverySeatAndNeverOversell() throws Exception {
+        Ride ride = createRide(createUser(), "Nashik", "Surat", SEATS);
+        List<Long> passengers = new ArrayList<>();
+        for (int i = 0; i < PASSENGERS; i++) {
+            passengers.add(createUser().getId());
+        }
+
+        List<String> failures = concurrently(passengers,
+            passengerId -> bookingService.createBooking(booking(ride.getId(), 1), passengerId));
+
+        // Free seats are never refused: only the bookers who came too late fail
+        assertThat(failures).hasSize(PASSENGERS - SEATS).containsOnly("Not enough seats available");
+        assertSoldOut(ride);
+    }
+
+    @Test
+    void concurrentConfirmationsTakeEverySeatAndNeverOversell() throws Exception {
+        User driver = createUser();
+        Ride ride = createRide(driver, "Thane", "Alibag", SEATS, false);
+        List<Long> pending = new ArrayList<>();
+        for (int i = 0; i < PASSENGERS; i++) {
+            pending.add(bookingService.createBooking(booking(ride.getId(), 1), createUser().getId()).getId());
+        }
+
+        List<String> failures = concurrently(pending,
+            bookingId -> bookingService.updateBookingStatus(bookingId, Booking.BookingStatus.CONFIRMED, driver.getId()));
+
+        assertThat(failures).hasSize(PASSENGERS - SEATS).containsOnly("Not enough seats available");
+        assertSoldOut(ride);
+    }
+
+    /**
+     * Run the action for every ID at once, one thread each; returns the messages of the attempts that failed
+     */
+    private List<String> concurrently(List<Long> ids, Consumer<Long> action) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(ids.size());
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<String>> attempts = new ArrayList<>();
+        try {
+            for (Long id : ids) {
+                attempts.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        action.accept(id);
+                        return null;
+                    } catch (RuntimeException e) {
+                        return String.valueOf(e.getMessage());
+                    }
+                }));
+            }
+            start.countDown();
+
+            List<String> failures = new ArrayList<>();
+            for (Future<String> attempt : attempts) {
+                String failure = attempt.get(30, TimeUnit.SECONDS);
+                if (failure != null) {
+                    failures.add(failure);
+                }
+            }
+            return failures;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void assertSoldOut(Ride ride) {
+        Ride stored = rideRepository.findById(ride.getId()).orElseThrow();
+        int confirmedSeats = bookingRepository.findAll().stream()
+            .filter(b -> b.getRide().getId().equals(ride.getId()))
+            .filter(b -> b.getStatus() == Booking.BookingStatus.CONFIRMED)
+            .mapToInt(Booking::getSeatsBooked)
+            .sum();
+
+        assertThat(confirmedSeats).isEqualTo(SEATS);
+        assertThat(stored.getAvailableSeats()).isZero();
+        assertThat(isSearchable(stored)).isFalse();
+    }
+
+    @Test
+    void rolledBackSeatChangeNeverReachesTheSearchIndex() {
+        Ride ride = createRide(createUser(), "Vapi", "Valsad", SEATS);
+        assertThat(isSearchable(ride)).isTrue();
+
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.executeWithoutResult(status -> {
+            rideService.updateAvailableSeats(ride.getId(), SEATS, null, null);
+            status.setRollbackOnly();
+        });
+
+        assertThat(rideRepository.findById(ride.getId()).orElseThrow().getAvailableSeats()).isEqualTo(SEATS);
+        assertThat(isSearchable(ride)).isTrue();
+
+        rideService.updateAvailableSeats(ride.getId(), SEATS, null, null);
+        assertThat(isSearchable(ride)).isFalse();
+    }
+
+    private boolean isSearchable(Ride ride) {
+        return rideSearchIndex.search(ride.getFromLocation(), ride.getToLocation(),
+                                      ride.getDepartureDate().atStartOfDay(),
+                                      ride.getDepartureDate().atTime(LocalTime.MAX))
+            .stream().anyMatch(match -> match.id().equals(ride.getId()));
+    }
+}
@@ -0,0 +1,47 @@
+package com.carpool.service;
+
+import com.carpool.dto.BookingView;
+import com.carpool.entity.Booking;
+import com.carpool.entity.Ride;
+import com.carpool.entity.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A passenger sees the driver's phone and email only once their booking is confirmed
+ */
+class DriverContactTest extends ServiceTestSupport {
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Test
+    void contactDetailsFollowTheBookingStatus() {
+        User driver = createUser();
+        User passenger = createUser();
+        Ride ride = createRide(driver, "Kolhapur", "Sangli", 3, false);
+
+        Booking booking = bookingService.createBooking(booking(ride.getId(), 1), passenger.getId());
+        assertThat(booking.getStatus()).isEqualTo(Booking.BookingStatus.PENDING);
+        assertThat(passengerView(passenger, booking).driverContact()).isNull();
+
+        bookingService.updateBookingStatus(booking.getId(), Booking.BookingStatus.CONFIRMED, driver.getId());
+
+        BookingView confirmed = passengerView(passenger, booking);
+        assertThat(confirmed.driverContact()).isNotNull();
+        assertThat(confirmed.driverContact().phone()).isEqualTo(driver.getPhone());
+        assertThat(confirmed.driverContact().email()).isEqualTo(driver.getEmail());
+
+        bookingService.updateBookingStatus(booking.getId(), Booking.BookingStatus.CANCELLED, passenger.getId());
+        assertThat(passengerView(passenger, booking).driverContact()).isNull();
+    }
+
+    private BookingView passengerView(User passenger, Booking booking) {
+        return bookingService.getBookingsByPassenger(passenger.getId()).stream()
+            .filter(view -> view.id().equals(booking.getId()))
+            .findFirst()
+            .orElseThrow();
+    }
+}
@@ -0,0 +1,108 @@
+package com.carpool.service;
+
+import com.carpool.entity.Booking;
+import com.carpool.entity.Ride;
+import com.carpool.entity.User;
+import com.carpool.security.AuthenticatedUser;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Only a ride's driver and its confirmed passengers rate each other, and a
+ * rating the database refuses is dropped without holding back the rest
+ */
+class RatingServiceTest extends ServiceTestSupport {
+
+    @Autowired
+    private RatingService ratingService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @AfterEach
+    void signOut() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void ratingsNeedAConfirmedBooking() {
+        User driver = createUser();
+        User passenger = createUser();
+        Ride ride = createRide(driver, "Nagpur", "Wardha", 3, false);
+
+        signIn(passenger);
+        assertThatThrownBy(() -> ratingService.submitRating(driver.getId(), null, ride.getId(), 4.0))
+            .hasMessageContaining("confirmed or completed booking");
+
+        Booking booking = bookingService.createBooking(booking(ride.getId(), 1), passenger.getId());
+        assertThatThrownBy(() -> ratingService.submitRating(driver.getId(), null, ride.getId(), 4.0))
+            .hasMessageContaining("confirmed or completed booking");
+        signIn(driver);
+        assertThatThrownBy(() -> ratingService.submitRating(passenger.getId(), null, ride.getId(), 4.0))
+            .hasMessageContaining("confirmed or completed booking");
+
+        bookingService.updateBookingStatus(booking.getId(), Booking.BookingStatus.CONFIRMED, driver.getId());
+        ratingService.submitRating(passenger.getId(), null, ride.getId(), 4.0);
+        signIn(passenger);
+        ratingService.submitRating(driver.getId(), null, ride.getId(), 5.0);
+        ratingService.flush();
+
+        assertThat(ratingsOn(ride)).isEqualTo(2);
+    }
+
+    @Test
+    void flushDropsOnlyTheRatingTheDatabaseRefuses() {
+        User driver = createUser();
+        Ride ride = createRide(driver, "Akola", "Amravati", 3);
+        User first = createUser();
+        User second = createUser();
+        bookingService.createBooking(booking(ride.getId(), 1), first.getId());
+        bookingService.createBooking(booking(ride.getId(), 1), second.getId());
+
+        signIn(driver);
+        ratingService.submitRating(first.getId(), null, ride.getId(), 4.0);
+        ratingService.submitRating(second.getId(), null, ride.getId(), 3.0);
+        // Rates a user that does not exist, as if deleted since it was accepted
+        pending().put(new RatingService.RatingKey(ride.getId(), driver.getId(), Long.MAX_VALUE), 2.0);
+        double droppedBefore = meterRegistry.counter("carpool.ratings.dropped").count();
+
+        ratingService.flush();
+
+        assertThat(ratingsOn(ride)).isEqualTo(2);
+        assertThat(pending()).isEmpty();
+        assertThat(meterRegistry.counter("carpool.ratings.dropped").count()).isEqualTo(droppedBefore + 1);
+        assertThat(userRepository.findById(first.getId()).orElseThrow().getRatingCount()).isEqualTo(1);
+    }
+
+    private void signIn(User user) {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+            new AuthenticatedUser(user.getId(), user.getEmail()), null, List.of()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<RatingService.RatingKey, Double> pending() {
+        return (Map<RatingService.RatingKey, Double>) ReflectionTestUtils.getField(ratingService, "pending");
+    }
+
+    private int ratingsOn(Ride ride) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM ratings WHERE ride_id = ?", Integer.class, ride.getId());
+    }
+}
@@ -0,0 +1,61 @@
+package com.carpool.service;
+
+import com.carpool.entity.Ride;
+import com.carpool.util.Polyline;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Departed rides are pruned from the search, geo and route indexes
+ */
+class RideIndexPruneTest {
+
+    private static final String ROUTE = Polyline.encode(new int[] {1907600, 7287770, 1852040, 7385670});
+
+    private static Ride ride(long id, LocalDate date) {
+        Ride ride = new Ride();
+        ride.setId(id);
+        ride.setStatus(Ride.RideStatus.ACTIVE);
+        ride.setFromLocation("Mumbai");
+        ride.setToLocation("Pune");
+        ride.setDepartureDate(date);
+        ride.setDepartureTime(LocalTime.of(9, 0));
+        ride.setAvailableSeats(3);
+        ride.setPickupLatitude(19.076);
+        ride.setPickupLongitude(72.8777);
+        ride.setDropLatitude(18.5204);
+        ride.setDropLongitude(73.8567);
+        ride.setRoutePolyline(ROUTE);
+        return ride;
+    }
+
+    @Test
+    void pruneDropsOnlyDepartedRides() {
+        LocalDate today = LocalDate.now();
+        RideSearchIndex searchIndex = new RideSearchIndex();
+        RideGeoIndex geoIndex = new RideGeoIndex();
+        RideRouteIndex routeIndex = new RideRouteIndex();
+        for (Ride ride : new Ride[] {ride(1, today.minusDays(2)), ride(2, today.minusDays(1)), ride(3, today)}) {
+            searchIndex.index(ride);
+            geoIndex.index(ride);
+            routeIndex.index(ride);
+        }
+
+        assertThat(searchIndex.pruneDepartedBefore(today)).isEqualTo(2);
+        assertThat(geoIndex.pruneDepartedBefore(today)).isEqualTo(2);
+        assertThat(routeIndex.pruneDepartedBefore(today)).isEqualTo(2);
+
+        assertThat(searchIndex.size()).isEqualTo(1);
+        assertThat(geoIndex.size()).isEqualTo(1);
+        assertThat(routeIndex.size()).isEqualTo(1);
+        assertThat(searchIndex.search("Mumbai", "Pune", today.minusDays(2).atStartOfDay(),
+                                      LocalDateTime.of(today, LocalTime.MAX)))
+            .extracting(RideSearchIndex.Match::id).containsExactly(3L);
+        assertThat(routeIndex.search(19.076, 72.8777, 18.5204, 73.8567, 2, today.minusDays(1))).isEmpty();
+    }
+}
@@ -0,0 +1,66 @@
+package com.carpool.service;
+
+import com.carpool.entity.Booking;
+import com.carpool.entity.Ride;
+import com.carpool.entity.User;
+import com.carpool.repository.BookingRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The driver dashboard runs a fixed number of statements, however many rides
+ * and bookings the driver has
+ */
+class RideQueryCountTest extends ServiceTestSupport {
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void driverDashboardStatementsDoNotGrowWithRides() {
+        User driver = createUser();
+        User passenger = createUser();
+        addRideWithBooking(driver, passenger);
+
+        // The first call also loads the driver into the users cache
+        rideService.getRidesByDriver(driver.getId());
+        long oneRide = statementsFor(driver);
+
+        for (int i = 0; i < 20; i++) {
+            addRideWithBooking(driver, passenger);
+        }
+        long manyRides = statementsFor(driver);
+
+        assertThat(rideService.getRidesByDriver(driver.getId())).hasSize(21);
+        assertThat(manyRides).isEqualTo(oneRide).isLessThanOrEqualTo(2);
+    }
+
+    private long statementsFor(User driver) {
+        statistics.clear();
+        rideService.getRidesByDriver(driver.getId());
+        return statistics.getPrepareStatementCount();
+    }
+
+    private void addRideWithBooking(User driver, User passenger) {
+        Ride ride = createRide(driver, "Nagpur", "Wardha", 3);
+        Booking booking = new Booking(passenger, ride, 1, null);
+        booking.setStatus(Booking.BookingStatus.CONFIRMED);
+        bookingRepository.save(booking);
+    }
+}
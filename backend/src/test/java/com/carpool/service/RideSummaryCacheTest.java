@@ -0,0 +1,45 @@
+package com.carpool.service;
+
+import com.carpool.dto.RideSummary;
+import com.carpool.entity.Ride;
+import com.carpool.entity.User;
+import com.carpool.repository.RideRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * A summary read before a change committed is not cached after the change's eviction
+ */
+class RideSummaryCacheTest extends ServiceTestSupport {
+
+    @SpyBean
+    private RideRepository rideRepository;
+
+    @Test
+    void staleSummaryIsNotCachedAfterEviction() {
+        User driver = createUser();
+        Ride ride = createRide(driver, "Satara", "Karad", 3);
+        AtomicBoolean raced = new AtomicBoolean();
+
+        // The ride is cancelled between reading its summary and caching it
+        doAnswer(invocation -> {
+            RideSummary loaded = rideRepository.findSummariesByIdIn(List.of(ride.getId())).get(0);
+            if (raced.compareAndSet(false, true)) {
+                rideService.updateRideStatus(ride.getId(), Ride.RideStatus.CANCELLED, driver.getId());
+            }
+            return Optional.of(loaded);
+        }).when(rideRepository).findSummaryById(ride.getId());
+
+        RideSummary stale = rideService.getRideSummary(ride.getId());
+        assertThat(stale.status()).isEqualTo(Ride.RideStatus.ACTIVE);
+
+        assertThat(rideService.getRideSummary(ride.getId()).status()).isEqualTo(Ride.RideStatus.CANCELLED);
+    }
+}
@@ -0,0 +1,69 @@
+package com.carpool.service;
+
+import com.carpool.dto.BookingCreationDTO;
+import com.carpool.dto.RideCreationDTO;
+import com.carpool.entity.Ride;
+import com.carpool.entity.User;
+import com.carpool.repository.UserRepository;
+import com.carpool.security.JwtTokenProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.UUID;
+
+/**
+ * Application context on the in-memory test database, with helpers that
+ * create users, rides and booking requests and sign requests as a user.
+ * Shared by the service tests and the controller and configuration tests.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+public abstract class ServiceTestSupport {
+
+    @Autowired
+    protected RideService rideService;
+
+    @Autowired
+    protected UserRepository userRepository;
+
+    @Autowired
+    protected JwtTokenProvider jwtTokenProvider;
+
+    protected User createUser() {
+        String id = UUID.randomUUID().toString().substring(0, 8);
+        return userRepository.save(new User("Test", "User", id + "@example.com", "98" + Math.abs(id.hashCode()),
+                                            "password123"));
+    }
+
+    protected Ride createRide(User driver, String from, String to, int seats) {
+        return createRide(driver, from, to, seats, true);
+    }
+
+    protected Ride createRide(User driver, String from, String to, int seats, boolean instantBooking) {
+        RideCreationDTO dto = new RideCreationDTO();
+        dto.setFromLocation(from);
+        dto.setToLocation(to);
+        dto.setDepartureDate(LocalDate.now().plusDays(3));
+        dto.setDepartureTime(LocalTime.of(9, 0));
+        dto.setAvailableSeats(seats);
+        dto.setPricePerSeat(250.0);
+        dto.setCarModel("Swift");
+        dto.setCarNumber("MH15AB1234");
+        dto.setInstantBooking(instantBooking);
+        return rideService.createRide(dto, driver.getId());
+    }
+
+    protected String bearer(User user) {
+        return "Bearer " + jwtTokenProvider.generateToken(user);
+    }
+
+    protected static BookingCreationDTO booking(Long rideId, int seats) {
+        BookingCreationDTO dto = new BookingCreationDTO();
+        dto.setRideId(rideId);
+        dto.setSeatsBooked(seats);
+        return dto;
+    }
+}
@@ -0,0 +1,153 @@
+package com.carpool.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The single-pass ValidationUtil checks give the same results as the regex
+ * implementation they replaced, on seeded random strings and on mutations of
+ * valid emails, phones, car numbers and markup
+ */
+class ValidationUtilDifferentialTest {
+
+    private static final long SEED = 20261017L;
+
+    private static final int RANDOM_INPUTS = 200_000;
+
+    private static final int MUTATED_INPUTS = 100_000;
+
+    // Characters the checks treat specially, the regex \s set, whitespace outside it and non-ASCII letters and digits
+    private static final String ALPHABET = "aZk09._+&*-@<>\"'%;()/ \t\n\u000B\f\r\u00A0\u2003\u00E9\u00C4\u0661\uFF15";
+
+    private static final String[] VALID = {
+        "john.doe@example.com", "a_b+c&d*e-f@sub.domain.travel", "x@y.co",
+        "9876543210", "+919876543210", "98765 43210", "+44 20 7946 0958",
+        "MH12AB1234", "KA 01 A 1", "DL3CAF0001",
+        "Mumbai (Central)", "<b>Pune</b> station", "Tom & Jerry's; 100% <script>x</script>", "  Navi Mumbai  "
+    };
+
+    @Test
+    void randomInputsMatchTheRegexImplementation() {
+        SplittableRandom random = new SplittableRandom(SEED);
+        for (int i = 0; i < RANDOM_INPUTS; i++) {
+            assertSameResults(randomString(random, random.nextInt(24)));
+        }
+    }
+
+    @Test
+    void mutatedValidInputsMatchTheRegexImplementation() {
+        SplittableRandom random = new SplittableRandom(SEED + 1);
+        for (int i = 0; i < MUTATED_INPUTS; i++) {
+            assertSameResults(mutate(random, VALID[random.nextInt(VALID.length)]));
+        }
+    }
+
+    private static void assertSameResults(String input) {
+        check("isValidEmail", input, ValidationUtil::isValidEmail, Legacy::isValidEmail);
+        check("isValidPhone", input, ValidationUtil::isValidPhone, Legacy::isValidPhone);
+        check("isValidCarNumber", input, ValidationUtil::isValidCarNumber, Legacy::isValidCarNumber);
+        check("sanitizeText", input, ValidationUtil::sanitizeText, Legacy::sanitizeText);
+        check("stripWhitespace", input, ValidationUtil::stripWhitespace, s -> s.replaceAll("\\s", ""));
+        check("isValidLocation", input, ValidationUtil::isValidLocation, Legacy::isValidLocation);
+    }
+
+    private static <T> void check(String method, String input, Function<String, T> current, Function<String, T> legacy) {
+        assertThat(current.apply(input))
+            .as("%s(\"%s\")", method, escape(input))
+            .isEqualTo(legacy.apply(input));
+    }
+
+    private static String randomString(SplittableRandom random, int length) {
+        StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            builder.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Insert, delete or replace one to three characters
+     */
+    private static String mutate(SplittableRandom random, String valid) {
+        StringBuilder builder = new StringBuilder(valid);
+        for (int edits = 1 + random.nextInt(3); edits > 0; edits--) {
+            int position = random.nextInt(builder.length() + 1);
+            char c = ALPHABET.charAt(random.nextInt(ALPHABET.length()));
+            switch (random.nextInt(3)) {
+                case 0 -> builder.insert(position, c);
+                case 1 -> {
+                    if (position < builder.length()) {
+                        builder.deleteCharAt(position);
+                    }
+                }
+                default -> {
+                    if (position < builder.length()) {
+                        builder.setCharAt(position, c);
+                    }
+                }
+            }
+        }
+        return builder.toString();
+    }
+
+    private static String escape(String input) {
+        StringBuilder builder = new StringBuilder();
+        for (char c : input.toCharArray()) {
+            builder.append(c >= 0x20 && c < 0x7F ? String.valueOf(c) : String.format("\\u%04X", (int) c));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * The regex implementation of the checks, as it was before the single-pass rewrite
+     */
+    private static final class Legacy {
+
+        private static final Pattern EMAIL_PATTERN = Pattern.compile(
+            "^[a-zA-Z0-9_+&*-]+(?:\\.[a-zA-Z0-9_+&*-]+)*@(?:[a-zA-Z0-9-]+\\.)+[a-zA-Z]{2,7}$"
+        );
+
+        private static final Pattern PHONE_PATTERN = Pattern.compile(
+            "^[+]?[0-9]{10,15}$"
+        );
+
+        private static final Pattern CAR_NUMBER_PATTERN = Pattern.compile(
+            "^[A-Z]{2}[0-9]{1,2}[A-Z]{1,3}[0-9]{1,4}$"
+        );
+
+        static boolean isValidEmail(String email) {
+            return email != null && EMAIL_PATTERN.matcher(email).matches();
+        }
+
+        static boolean isValidPhone(String phone) {
+            return phone != null && PHONE_PATTERN.matcher(phone.replaceAll("\\s", "")).matches();
+        }
+
+        static boolean isValidCarNumber(String carNumber) {
+            return carNumber != null && CAR_NUMBER_PATTERN.matcher(carNumber.replaceAll("\\s", "")).matches();
+        }
+
+        static String sanitizeText(String input) {
+            if (input == null) {
+                return null;
+            }
+            String sanitized = input.replaceAll("<[^>]*>", "");
+            sanitized = sanitized.replaceAll("[<>\"'%;()&+]", "");
+            sanitized = sanitized.trim();
+            return sanitized.isEmpty() ? null : sanitized;
+        }
+
+        static boolean isValidLocation(String location) {
+            if (location == null || location.trim().isEmpty()) {
+                return false;
+            }
+            String sanitized = sanitizeText(location);
+            return sanitized != null && sanitized.length() >= 2 && sanitized.length() <= 100;
+        }
+    }
+}
@@ -177,7 +177,9 @@ function OfferRide() {
         allowSmoking: formData.allowSmoking,
         allowPets: formData.allowPets,
         allowFood: formData.allowFood,
-        additionalInfo: formData.additionalInfo
+        additionalInfo: formData.additionalInfo,
+        // Stops in route order, leaving out empty inputs
+        stops: formData.stops.map(stop => stop.trim()).filter(stop => stop)
       };
       
       console.log('Form Data:', formData);
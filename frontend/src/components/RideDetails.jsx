@@ -1,4 +1,4 @@
-import { Shield, Car, MapPin, Calendar, Clock, Users, ArrowLeft, Star, IndianRupee, Phone, MessageCircle, User, CreditCard, CheckCircle, AlertCircle, Navigation } from 'lucide-react';
+import { Shield, Car, MapPin, Calendar, Clock, Users, ArrowLeft, Star, IndianRupee, Phone, Mail, MessageCircle, User, CreditCard, CheckCircle, AlertCircle, Navigation } from 'lucide-react';
 import { useState, useEffect } from 'react';
 import { Link, useNavigate, useParams, useSearchParams } from 'react-router-dom';
 import Footer from './Footer';
@@ -47,6 +47,8 @@ function RideDetails() {
   // State for contact
   const [showContact, setShowContact] = useState(false);
   const [contactMessage, setContactMessage] = useState('');
+  // Driver's phone and email, only sent with a confirmed booking on this ride
+  const [driverContact, setDriverContact] = useState(null);
 
   // Check if contact should be shown from URL params
   useEffect(() => {
@@ -68,14 +70,13 @@ function RideDetails() {
 
     return {
       id: backendRide.id,
+      status: backendRide.status || 'ACTIVE',
       driver: {
         id: backendRide.driver?.id || 1,
         name: driverFullName,
         rating: backendRide.driver?.rating || 4.0,
         trips: backendRide.driver?.totalTrips || backendRide.driver?.trips || 0,
         photo: `${driverFirstName.charAt(0)}${driverLastName.charAt(0)}`.toUpperCase() || 'UD',
-        phone: backendRide.driver?.phone || 'N/A',
-        email: backendRide.driver?.email || 'N/A',
         joinedDate: backendRide.driver?.createdAt || backendRide.driver?.joinedDate || new Date().toISOString().split('T')[0],
         verificationStatus: "verified",
         bio: backendRide.driver?.bio || `Experienced driver with safe driving record.`
@@ -148,6 +149,43 @@ function RideDetails() {
     }
   }, [rideId]);
 
+  // Look up the driver's contact details through the user's confirmed booking
+  useEffect(() => {
+    if (!user || !rideId) {
+      return;
+    }
+    
+    bookingApi.getUserBookings(user.id)
+      .then(response => {
+        const bookings = Array.isArray(response) ? response : response?.bookings || [];
+        const confirmed = bookings.find(
+          booking => String(booking.ride?.id) === String(rideId) && booking.driverContact
+        );
+        setDriverContact(confirmed ? confirmed.driverContact : null);
+      })
+      .catch(error => console.warn('Could not load bookings for driver contact:', error));
+  }, [user, rideId]);
+
+  // Keep the seat count and status live while the page is open
+  useEffect(() => {
+    if (!rideId) {
+      return undefined;
+    }
+    
+    return rideApi.subscribe(rideId, {
+      onChange: (update) => {
+        setRide(prev => prev && {
+          ...prev,
+          status: update.status || prev.status,
+          pricing: { ...prev.pricing, availableSeats: update.availableSeats }
+        });
+      },
+      onRemoved: () => {
+        setRide(prev => prev && { ...prev, status: 'REMOVED' });
+      }
+    });
+  }, [rideId]);
+
   // Mock ride data for demo
   const getMockRideData = (id) => ({
     id: parseInt(id),
@@ -157,8 +195,6 @@ function RideDetails() {
       rating: 4.8,
       trips: 45,
       photo: "RS",
-      phone: "+91 98765 43210",
-      email: "rahul.sharma@example.com",
       joinedDate: "2023-05-15",
       verificationStatus: "verified",
       bio: "Experienced driver with 5+ years of safe driving. I love traveling and meeting new people!"
@@ -220,9 +256,31 @@ function RideDetails() {
     );
   };
 
+  // Seats taken by others while the page is open also lower the selection
+  useEffect(() => {
+    const availableSeats = ride?.pricing?.availableSeats;
+    if (availableSeats > 0) {
+      setSelectedSeats(prev => Math.min(prev, availableSeats));
+    }
+  }, [ride?.pricing?.availableSeats]);
+
+  // Why the ride can no longer be booked, or null while it can
+  const getBookingClosedReason = (currentRide) => {
+    switch (currentRide?.status) {
+      case 'REMOVED':
+        return 'This ride has been removed by the driver';
+      case 'CANCELLED':
+        return 'This ride has been cancelled by the driver';
+      case 'COMPLETED':
+        return 'This ride has already taken place';
+      default:
+        return currentRide?.pricing?.availableSeats === 0 ? 'This ride is fully booked' : null;
+    }
+  };
+
   // Handle booking
   const handleBookRide = async () => {
-    if (!user || !ride) return;
+    if (!user || !ride || getBookingClosedReason(ride)) return;
 
     // Check if user is trying to book their own ride
     if (user.id === ride.driver?.id || user.id === ride.driverId) {
@@ -707,28 +765,36 @@ function RideDetails() {
                       <div className="text-sm text-gray-500 mt-1">Drivers cannot book their own rides</div>
                     </div>
                   ) : (
-                    <button
-                      onClick={handleBookRide}
-                      disabled={isBooking || bookingSuccess}
-                      className="w-full bg-blue-600 hover:bg-blue-700 disabled:bg-blue-400 text-white py-3 px-4 rounded-lg font-semibold transition-colors flex items-center justify-center"
-                    >
-                      {isBooking ? (
-                        <>
-                          <div className="animate-spin rounded-full h-5 w-5 border-b-2 border-white mr-2"></div>
-                          Booking...
-                        </>
-                      ) : bookingSuccess ? (
-                        <>
-                          <CheckCircle className="w-5 h-5 mr-2" />
-                          Booked!
-                        </>
-                      ) : (
-                        <>
-                          <CreditCard className="w-5 h-5 mr-2" />
-                          {ride.preferences?.instantBooking ? 'Book Now' : 'Request Booking'}
-                        </>
+                    <>
+                      {getBookingClosedReason(ride) && !bookingSuccess && (
+                        <div className="w-full bg-red-50 text-red-700 py-3 px-4 rounded-lg text-sm font-medium text-center border border-red-200 flex items-center justify-center">
+                          <AlertCircle className="w-4 h-4 mr-2" />
+                          {getBookingClosedReason(ride)}
+                        </div>
                       )}
-                    </button>
+                      <button
+                        onClick={handleBookRide}
+                        disabled={isBooking || bookingSuccess || Boolean(getBookingClosedReason(ride))}
+                        className="w-full bg-blue-600 hover:bg-blue-700 disabled:bg-blue-400 text-white py-3 px-4 rounded-lg font-semibold transition-colors flex items-center justify-center"
+                      >
+                        {isBooking ? (
+                          <>
+                            <div className="animate-spin rounded-full h-5 w-5 border-b-2 border-white mr-2"></div>
+                            Booking...
+                          </>
+                        ) : bookingSuccess ? (
+                          <>
+                            <CheckCircle className="w-5 h-5 mr-2" />
+                            Booked!
+                          </>
+                        ) : (
+                          <>
+                            <CreditCard className="w-5 h-5 mr-2" />
+                            {ride.preferences?.instantBooking ? 'Book Now' : 'Request Booking'}
+                          </>
+                        )}
+                      </button>
+                    </>
                   )}
 
                   {user && (user.id === ride.driver?.id || user.id === ride.driverId) ? (
@@ -784,13 +850,31 @@ function RideDetails() {
             </div>
 
             <div className="space-y-4">
-              <div className="flex items-center space-x-3 p-3 bg-gray-50 rounded-lg">
-                <Phone className="w-5 h-5 text-blue-600" />
-                <div>
-                  <div className="font-medium text-gray-800">{ride.driver?.phone || 'N/A'}</div>
-                  <div className="text-sm text-gray-600">Driver's phone number</div>
+              {driverContact ? (
+                <>
+                  <div className="flex items-center space-x-3 p-3 bg-gray-50 rounded-lg">
+                    <Phone className="w-5 h-5 text-blue-600" />
+                    <div>
+                      <div className="font-medium text-gray-800">{driverContact.phone}</div>
+                      <div className="text-sm text-gray-600">Driver's phone number</div>
+                    </div>
+                  </div>
+                  <div className="flex items-center space-x-3 p-3 bg-gray-50 rounded-lg">
+                    <Mail className="w-5 h-5 text-blue-600" />
+                    <div>
+                      <div className="font-medium text-gray-800">{driverContact.email}</div>
+                      <div className="text-sm text-gray-600">Driver's email</div>
+                    </div>
+                  </div>
+                </>
+              ) : (
+                <div className="flex items-center space-x-3 p-3 bg-gray-50 rounded-lg">
+                  <Phone className="w-5 h-5 text-gray-400" />
+                  <div className="text-sm text-gray-600">
+                    The driver's phone number and email are shared once your booking is confirmed.
+                  </div>
                 </div>
-              </div>
+              )}
 
               <div>
                 <label className="block text-sm font-medium text-gray-700 mb-2">
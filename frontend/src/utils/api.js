@@ -16,12 +16,27 @@ const isCacheValid = (timestamp) => {
   return Date.now() - timestamp < config.CACHE_DURATION;
 };
 
+// Authorization header with the token issued at login, if the user is signed in
+const getAuthHeaders = () => {
+  try {
+    const user = JSON.parse(localStorage.getItem('user') || '{}');
+    return user.token ? { Authorization: `Bearer ${user.token}` } : {};
+  } catch {
+    return {};
+  }
+};
+
 // Enhanced error handling
 const handleResponse = async (response) => {
   if (config.DEBUG) {
     console.log('API Response:', response.status, response.statusText);
   }
   
+  // Token expired or invalid: drop the stored session so the user signs in again
+  if (response.status === 401) {
+    localStorage.removeItem('user');
+  }
+  
   if (!response.ok) {
     let errorMessage = 'An error occurred';
     
@@ -62,6 +77,7 @@ const fetchWithRetry = async (url, options = {}, retries = 3) => {
         ...options,
         headers: {
           'Content-Type': 'application/json',
+          ...getAuthHeaders(),
           ...options.headers,
         },
       });
@@ -146,6 +162,7 @@ export const rideApi = {
       method: 'POST',
       headers: {
         'Content-Type': 'application/json',
+        ...getAuthHeaders(),
       },
       body: JSON.stringify(rideData),
     });
@@ -215,6 +232,22 @@ export const rideApi = {
     }
     
     return [];
+  },
+
+  // Follow a ride's seats and status live (Server-Sent Events) instead of re-polling it.
+  // onChange gets every new state ({ availableSeats, segmentSeats, status }), onRemoved is
+  // called once if the driver deletes the ride; returns a function that stops following
+  subscribe: (rideId, { onChange, onRemoved }) => {
+    const source = new EventSource(`${API_BASE_URL}/rides/${rideId}/events`);
+    source.addEventListener('seats', (event) => onChange(JSON.parse(event.data)));
+    source.addEventListener('removed', () => {
+      // Nothing more will change; stop the browser from reconnecting
+      source.close();
+      if (onRemoved) {
+        onRemoved();
+      }
+    });
+    return () => source.close();
   }
 };
 